@@ -0,0 +1,48 @@
+package com.stockmaster.backend.benchmark;
+
+import com.stockmaster.backend.StockmasterBackendApplication;
+import com.stockmaster.backend.service.DashboardMetricsAggregate;
+import com.stockmaster.backend.service.SalesRollupService;
+import com.stockmaster.backend.service.StockLedgerService;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+/**
+ * Arranca la aplicación con el perfil "benchmark" (sin servidor web, base recreada) y la llena
+ * con BenchmarkDataGenerator. Los acumulados derivados (ventas diarias, métricas del Dashboard,
+ * cortes de stock) se reconstruyen después de la carga, igual que tras una migración.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    // Los argumentos se tratan como línea de comandos de Spring Boot (p. ej. --server.port=0)
+    static ConfigurableApplicationContext start(String... args) {
+        // devtools relanzaría main en otro hilo y con otros argumentos: aquí no hay recarga que hacer
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(StockmasterBackendApplication.class)
+                .profiles("benchmark")
+                // Base recreada en cada arranque: se vacía y se vuelven a aplicar las migraciones
+                .initializers(context -> context.getBeanFactory().registerSingleton("flywayMigrationStrategy",
+                        (FlywayMigrationStrategy) flyway -> {
+                            flyway.clean();
+                            flyway.migrate();
+                        }))
+                .run(args);
+    }
+
+    static BenchmarkDataGenerator.Dataset populate(ConfigurableApplicationContext context,
+                                                   int products, int warehouses, int movements) {
+        BenchmarkDataGenerator.Dataset dataset = BenchmarkDataGenerator.generate(
+                context.getBean(JdbcTemplate.class), products, warehouses, movements, 42L);
+        context.getBean(SalesRollupService.class).backfill(LocalDate.now().minusDays(100), LocalDate.now());
+        context.getBean(DashboardMetricsAggregate.class).seed();
+        context.getBean(StockLedgerService.class).rebuildCheckpoints();
+        return dataset;
+    }
+}
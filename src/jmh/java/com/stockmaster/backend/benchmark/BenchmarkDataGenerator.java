@@ -0,0 +1,111 @@
+package com.stockmaster.backend.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Genera un conjunto de datos de N productos × M almacenes × K movimientos con inserciones JDBC por lotes.
+ * El stock inicial es alto para que las salidas y transferencias del benchmark no fallen por stock, y se
+ * registra como un movimiento "Saldo inicial": el inventario generado cumple stock_actual = suma de movimientos.
+ */
+public final class BenchmarkDataGenerator {
+
+    static final int INITIAL_STOCK = 1_000_000;
+    private static final int BATCH_SIZE = 1000;
+    private static final int HISTORY_DAYS = 90;
+
+    public record Dataset(long userId, long[] productIds, long[] warehouseIds) {
+    }
+
+    private BenchmarkDataGenerator() {
+    }
+
+    public static Dataset generate(JdbcTemplate jdbc, int products, int warehouses, int movements, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        LocalDateTime now = LocalDateTime.now();
+
+        jdbc.update("INSERT INTO categoria (nombre_categoria) VALUES ('Benchmark')");
+        long categoryId = jdbc.queryForObject("SELECT id_categoria FROM categoria", Long.class);
+
+        jdbc.update("INSERT INTO usuario (nombre, email, password, is_active, rol, fecha_registro) VALUES (?, ?, ?, true, ?, ?)",
+                "Benchmark", "benchmark@stockmaster.local", "-", "ADMINISTRADOR", Timestamp.valueOf(now));
+        long userId = jdbc.queryForObject("SELECT id_usuario FROM usuario", Long.class);
+
+        List<Object[]> rows = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            rows.add(new Object[]{"Producto " + i, "SKU-" + i, 1 + random.nextInt(50_000) / 100.0, categoryId, Timestamp.valueOf(now)});
+        }
+        insert(jdbc, "INSERT INTO producto (nombre_producto, sku, precio, is_active, id_categoria, created_at) " +
+                "VALUES (?, ?, ?, true, ?, ?)", rows);
+        long[] productIds = jdbc.queryForList("SELECT id_producto FROM producto ORDER BY id_producto", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+
+        rows = new ArrayList<>(warehouses);
+        for (int i = 0; i < warehouses; i++) {
+            rows.add(new Object[]{"Almacén " + i, "Ciudad " + (i % 5)});
+        }
+        insert(jdbc, "INSERT INTO almacen (nombre_almacen, ciudad, is_active) VALUES (?, ?, true)", rows);
+        long[] warehouseIds = jdbc.queryForList("SELECT id_almacen FROM almacen ORDER BY id_almacen", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+
+        // Historial: ~70% salidas, repartido en los últimos 90 días. Se acumula el neto de cada
+        // par producto/almacén para que stock_actual coincida con la suma de sus movimientos.
+        long[] net = new long[productIds.length * warehouseIds.length];
+        rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < movements; i++) {
+            String type = random.nextInt(10) < 7 ? "SALIDA" : "ENTRADA";
+            LocalDateTime date = now.minusMinutes(random.nextLong(HISTORY_DAYS * 24L * 60L));
+            int quantity = 1 + random.nextInt(20);
+            int p = random.nextInt(productIds.length);
+            int w = random.nextInt(warehouseIds.length);
+            net[p * warehouseIds.length + w] += type.equals("ENTRADA") ? quantity : -quantity;
+            rows.add(new Object[]{Timestamp.valueOf(date), type, quantity, productIds[p], warehouseIds[w], userId, null});
+            if (rows.size() == BATCH_SIZE) {
+                insertMovements(jdbc, rows);
+                rows.clear();
+            }
+        }
+        insertMovements(jdbc, rows);
+
+        // Saldo inicial: una entrada por par anterior al historial, y el inventario resultante
+        Timestamp openingDate = Timestamp.valueOf(now.minusDays(HISTORY_DAYS + 1));
+        rows = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> inventory = new ArrayList<>(BATCH_SIZE);
+        for (int p = 0; p < productIds.length; p++) {
+            for (int w = 0; w < warehouseIds.length; w++) {
+                rows.add(new Object[]{openingDate, "ENTRADA", INITIAL_STOCK, productIds[p], warehouseIds[w], userId, "Saldo inicial"});
+                inventory.add(new Object[]{productIds[p], warehouseIds[w], INITIAL_STOCK + net[p * warehouseIds.length + w], 12});
+                if (rows.size() == BATCH_SIZE) {
+                    insertMovements(jdbc, rows);
+                    insertInventory(jdbc, inventory);
+                    rows.clear();
+                    inventory.clear();
+                }
+            }
+        }
+        insertMovements(jdbc, rows);
+        insertInventory(jdbc, inventory);
+
+        return new Dataset(userId, productIds, warehouseIds);
+    }
+
+    private static void insertMovements(JdbcTemplate jdbc, List<Object[]> rows) {
+        insert(jdbc, "INSERT INTO movimiento_inventario (fecha_movimiento, tipo_movimiento, cantidad, id_producto, id_almacen, id_usuario, motivo) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    private static void insertInventory(JdbcTemplate jdbc, List<Object[]> rows) {
+        insert(jdbc, "INSERT INTO inventario (id_producto, id_almacen, stock_actual, stock_minimo) VALUES (?, ?, ?, ?)", rows);
+    }
+
+    private static void insert(JdbcTemplate jdbc, String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate(sql, rows);
+        }
+    }
+}
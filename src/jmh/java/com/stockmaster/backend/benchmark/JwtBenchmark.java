@@ -0,0 +1,50 @@
+package com.stockmaster.backend.benchmark;
+
+import com.stockmaster.backend.entity.User;
+import com.stockmaster.backend.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creación y validación de JWT. "cached" es el camino de cada petición autenticada tras la primera;
+ * "uncached" mide la verificación completa (HMAC + parseo) con una caché vacía.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private User user;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        user = new User();
+        user.setId(1L);
+        user.setEmail("benchmark@stockmaster.local");
+        user.setRole("ADMINISTRADOR");
+        token = jwtUtil.createToken(user);
+    }
+
+    @Benchmark
+    public String createToken() {
+        return jwtUtil.createToken(user);
+    }
+
+    @Benchmark
+    public Claims validateCached() {
+        return jwtUtil.getClaims(token);
+    }
+
+    @Benchmark
+    public Claims validateUncached() {
+        return new JwtUtil().getClaims(token);
+    }
+}
@@ -0,0 +1,344 @@
+package com.stockmaster.backend.benchmark;
+
+import com.stockmaster.backend.entity.User;
+import com.stockmaster.backend.repository.UserRepository;
+import com.stockmaster.backend.util.JwtUtil;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prueba de carga extremo a extremo: arranca la aplicación completa (Tomcat, seguridad, JPA) contra la
+ * base del perfil "benchmark", la llena con BenchmarkDataGenerator y lanza N usuarios concurrentes por HTTP
+ * con el token JWT del usuario generado. Mezcla de tráfico por petición:
+ *
+ *   70% GET  /api/inventory/current-stock
+ *   10% POST /api/movements/entry
+ *   10% POST /api/movements/exit
+ *    5% POST /api/movements/transfer
+ *    5% GET  /api/dashboard/summary
+ *
+ * Al terminar informa p50/p99 por endpoint y comprueba que, para cada producto y almacén,
+ * stock_actual coincide con la suma de sus movimientos. Sale con código 1 si algo no cuadra.
+ *
+ *   mvn -Pbenchmark test-compile exec:exec@load-test
+ *   mvn -Pbenchmark test-compile exec:exec@load-test -Dloadtest.args="--users=400 --duration=120"
+ *
+ * Para comparar hilos de plataforma y virtuales se repite la misma carga con --virtual-threads=true:
+ *
+ *   -Dloadtest.args="--users=1500 --duration=60 --virtual-threads=false"
+ *   -Dloadtest.args="--users=1500 --duration=60 --virtual-threads=true"
+ *
+ * Para medir la escritura diferida (MovementJournal), solo entradas y salidas con y sin commit agrupado:
+ *
+ *   -Dloadtest.args="--users=200 --mix=movements --write-behind=false"
+ *   -Dloadtest.args="--users=200 --mix=movements --write-behind=true"
+ *
+ * Para medir el coste de escribir trazas en cada petición (la cadena de filtros de seguridad antes
+ * imprimía varias líneas por petición en stdout), la misma carga con el nivel de application.properties (INFO)
+ * y con las trazas debug de seguridad activas:
+ *
+ *   -Dloadtest.args="--users=200 --security-debug-logging=false"
+ *   -Dloadtest.args="--users=200 --security-debug-logging=true"
+ */
+public final class LoadTest {
+
+    private static final String CURRENT_STOCK = "GET /api/inventory/current-stock";
+    private static final String ENTRY = "POST /api/movements/entry";
+    private static final String EXIT = "POST /api/movements/exit";
+    private static final String TRANSFER = "POST /api/movements/transfer";
+    private static final String DASHBOARD = "GET /api/dashboard/summary";
+    private static final List<String> ENDPOINTS = List.of(CURRENT_STOCK, ENTRY, EXIT, TRANSFER, DASHBOARD);
+
+    private LoadTest() {
+    }
+
+    // ── Opciones (--clave=valor) ─────────────────────────────────────────────
+    record Options(int users, int warmupSeconds, int durationSeconds, long thinkMs,
+                   int products, int warehouses, int movements, boolean virtualThreads,
+                   boolean writeBehind, boolean movementsOnly, boolean securityDebugLogging) {
+
+        private static final Set<String> KEYS = Set.of("users", "warmup", "duration", "think-ms",
+                "products", "warehouses", "movements", "virtual-threads", "write-behind", "mix",
+                "security-debug-logging");
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Argumento no válido: " + arg + " (se espera --clave=valor)");
+                }
+                String key = arg.substring(2, arg.indexOf('='));
+                if (!KEYS.contains(key)) {
+                    throw new IllegalArgumentException("Opción desconocida: --" + key + " (válidas: " + KEYS + ")");
+                }
+                values.put(key, arg.substring(arg.indexOf('=') + 1));
+            }
+            Options options = new Options(
+                    Integer.parseInt(values.getOrDefault("users", "200")),
+                    Integer.parseInt(values.getOrDefault("warmup", "10")),
+                    Integer.parseInt(values.getOrDefault("duration", "60")),
+                    Long.parseLong(values.getOrDefault("think-ms", "0")),
+                    Integer.parseInt(values.getOrDefault("products", "1000")),
+                    Integer.parseInt(values.getOrDefault("warehouses", "10")),
+                    Integer.parseInt(values.getOrDefault("movements", "100000")),
+                    Boolean.parseBoolean(values.getOrDefault("virtual-threads", "false")),
+                    Boolean.parseBoolean(values.getOrDefault("write-behind", "false")),
+                    parseMix(values.getOrDefault("mix", "default")),
+                    Boolean.parseBoolean(values.getOrDefault("security-debug-logging", "false")));
+            if (options.users() < 1 || options.durationSeconds() < 1 || options.warehouses() < 2) {
+                throw new IllegalArgumentException("Se requieren users >= 1, duration >= 1 y warehouses >= 2");
+            }
+            return options;
+        }
+
+        private static boolean parseMix(String mix) {
+            return switch (mix) {
+                case "default" -> false;
+                case "movements" -> true;
+                default -> throw new IllegalArgumentException("--mix debe ser default o movements");
+            };
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        int exitCode;
+        try (ConfigurableApplicationContext context = BenchmarkContext.start(
+                "--spring.main.web-application-type=servlet", "--server.port=0",
+                "--spring.threads.virtual.enabled=" + options.virtualThreads(),
+                "--movements.write-behind.enabled=" + options.writeBehind(),
+                "--logging.level.com.stockmaster.backend.util.JwtAuthenticationFilter=" + securityLogLevel(options),
+                "--logging.level.com.stockmaster.backend.security=" + securityLogLevel(options))) {
+            BenchmarkDataGenerator.Dataset dataset = BenchmarkContext.populate(
+                    context, options.products(), options.warehouses(), options.movements());
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+            User user = context.getBean(UserRepository.class)
+                    .findByEmailAndIsActive("benchmark@stockmaster.local", true)
+                    .orElseThrow(() -> new IllegalStateException("Usuario de benchmark no generado"));
+            String token = context.getBean(JwtUtil.class).createToken(user);
+
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+            String baseUrl = "http://localhost:" + port;
+
+            System.out.printf("Carga: %d usuarios, %ds de calentamiento + %ds medidos, %d productos x %d almacenes, " +
+                            "servidor con hilos %s, mezcla %s, escritura diferida %s, trazas de seguridad %s%n",
+                    options.users(), options.warmupSeconds(), options.durationSeconds(),
+                    options.products(), options.warehouses(), options.virtualThreads() ? "virtuales" : "de plataforma",
+                    options.movementsOnly() ? "movements" : "default", options.writeBehind() ? "si" : "no",
+                    securityLogLevel(options));
+            if (options.warmupSeconds() > 0) {
+                run(client, baseUrl, token, dataset, options, options.warmupSeconds());
+            }
+            List<VirtualUser> results = run(client, baseUrl, token, dataset, options, options.durationSeconds());
+            report(results, options.durationSeconds());
+
+            exitCode = StockInvariant.verify(context.getBean(JdbcTemplate.class)) ? 0 : 1;
+        }
+        System.exit(exitCode);
+    }
+
+    private static String securityLogLevel(Options options) {
+        return options.securityDebugLogging() ? "DEBUG" : "INFO";
+    }
+
+    private static List<VirtualUser> run(HttpClient client, String baseUrl, String token,
+                                         BenchmarkDataGenerator.Dataset dataset, Options options,
+                                         int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        // Un hilo virtual por usuario: el generador de carga no debe ser el cuello de botella
+        ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+        List<VirtualUser> users = new ArrayList<>(options.users());
+        List<Future<?>> futures = new ArrayList<>(options.users());
+        for (int i = 0; i < options.users(); i++) {
+            VirtualUser user = new VirtualUser(client, baseUrl, token, dataset, options.thinkMs(),
+                    options.movementsOnly(), i);
+            users.add(user);
+            futures.add(pool.submit(() -> user.runUntil(deadline)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.close();
+        return users;
+    }
+
+    // ── Usuario virtual: bucle petición → latencia, sin estado compartido ─────
+    private static final class VirtualUser {
+
+        private final HttpClient client;
+        private final String baseUrl;
+        private final String authorization;
+        private final BenchmarkDataGenerator.Dataset dataset;
+        private final long thinkMs;
+        private final boolean movementsOnly;
+        private final SplittableRandom random;
+
+        // Latencias en ns por endpoint (mismo orden que ENDPOINTS)
+        final long[][] samples = new long[ENDPOINTS.size()][1024];
+        final int[] counts = new int[ENDPOINTS.size()];
+        final int[] errors = new int[ENDPOINTS.size()];
+
+        VirtualUser(HttpClient client, String baseUrl, String token,
+                    BenchmarkDataGenerator.Dataset dataset, long thinkMs, boolean movementsOnly, long seed) {
+            this.client = client;
+            this.baseUrl = baseUrl;
+            this.authorization = "Bearer " + token;
+            this.dataset = dataset;
+            this.thinkMs = thinkMs;
+            this.movementsOnly = movementsOnly;
+            this.random = new SplittableRandom(seed);
+        }
+
+        void runUntil(long deadline) {
+            while (System.nanoTime() < deadline) {
+                // Con --mix=movements solo entradas y salidas, a partes iguales
+                int roll = movementsOnly ? 70 + random.nextInt(20) : random.nextInt(100);
+                int endpoint;
+                HttpRequest request;
+                if (roll < 70) {
+                    endpoint = 0;
+                    request = get("/api/inventory/current-stock?productId=" + randomProduct() + "&warehouseId=" + randomWarehouse());
+                } else if (roll < 80) {
+                    endpoint = 1;
+                    request = post("/api/movements/entry", movementBody());
+                } else if (roll < 90) {
+                    endpoint = 2;
+                    request = post("/api/movements/exit", movementBody());
+                } else if (roll < 95) {
+                    endpoint = 3;
+                    request = post("/api/movements/transfer", transferBody());
+                } else {
+                    endpoint = 4;
+                    request = get("/api/dashboard/summary");
+                }
+                send(endpoint, request);
+                if (thinkMs > 0) {
+                    try {
+                        Thread.sleep(thinkMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+
+        private void send(int endpoint, HttpRequest request) {
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                ok = response.statusCode() / 100 == 2;
+            } catch (Exception e) {
+                ok = false;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (!ok) {
+                errors[endpoint]++;
+                return;
+            }
+            if (counts[endpoint] == samples[endpoint].length) {
+                samples[endpoint] = Arrays.copyOf(samples[endpoint], counts[endpoint] * 2);
+            }
+            samples[endpoint][counts[endpoint]++] = elapsed;
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Authorization", authorization)
+                    .GET()
+                    .build();
+        }
+
+        private HttpRequest post(String path, String json) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Authorization", authorization)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json))
+                    .build();
+        }
+
+        private String movementBody() {
+            return "{\"productId\":" + randomProduct() + ",\"warehouseId\":" + randomWarehouse() +
+                    ",\"quantity\":" + (1 + random.nextInt(5)) + ",\"userId\":" + dataset.userId() + "}";
+        }
+
+        private String transferBody() {
+            long[] warehouseIds = dataset.warehouseIds();
+            int origin = random.nextInt(warehouseIds.length);
+            int destination = (origin + 1 + random.nextInt(warehouseIds.length - 1)) % warehouseIds.length;
+            return "{\"productId\":" + randomProduct() + ",\"originWarehouseId\":" + warehouseIds[origin] +
+                    ",\"destinationWarehouseId\":" + warehouseIds[destination] +
+                    ",\"quantity\":" + (1 + random.nextInt(5)) + ",\"userId\":" + dataset.userId() + "}";
+        }
+
+        private long randomProduct() {
+            return dataset.productIds()[random.nextInt(dataset.productIds().length)];
+        }
+
+        private long randomWarehouse() {
+            return dataset.warehouseIds()[random.nextInt(dataset.warehouseIds().length)];
+        }
+    }
+
+    // ── Informe ──────────────────────────────────────────────────────────────
+    private static void report(List<VirtualUser> users, int seconds) {
+        System.out.printf("%n%-36s %10s %8s %10s %10s %10s %10s%n",
+                "Endpoint", "Peticiones", "Errores", "Req/s", "p50 (ms)", "p99 (ms)", "Max (ms)");
+        List<long[]> all = new ArrayList<>();
+        int allErrors = 0;
+        for (int e = 0; e < ENDPOINTS.size(); e++) {
+            int total = 0;
+            int errors = 0;
+            for (VirtualUser user : users) {
+                total += user.counts[e];
+                errors += user.errors[e];
+            }
+            long[] merged = new long[total];
+            int offset = 0;
+            for (VirtualUser user : users) {
+                System.arraycopy(user.samples[e], 0, merged, offset, user.counts[e]);
+                offset += user.counts[e];
+            }
+            printRow(ENDPOINTS.get(e), merged, errors, seconds);
+            all.add(merged);
+            allErrors += errors;
+        }
+        printRow("Total", all.stream().flatMapToLong(Arrays::stream).toArray(), allErrors, seconds);
+    }
+
+    private static void printRow(String name, long[] samples, int errors, int seconds) {
+        Arrays.sort(samples);
+        System.out.printf("%-36s %10d %8d %10.1f %10.2f %10.2f %10.2f%n",
+                name, samples.length, errors, (double) samples.length / seconds,
+                percentileMs(samples, 0.50), percentileMs(samples, 0.99),
+                samples.length == 0 ? 0 : samples[samples.length - 1] / 1e6);
+    }
+
+    // Percentil por rango más cercano sobre las muestras ordenadas
+    static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / 1e6;
+    }
+}
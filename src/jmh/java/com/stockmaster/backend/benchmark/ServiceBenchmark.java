@@ -0,0 +1,122 @@
+package com.stockmaster.backend.benchmark;
+
+import com.stockmaster.backend.dto.DashboardMetricDto;
+import com.stockmaster.backend.dto.MovementDto;
+import com.stockmaster.backend.dto.ProductListDto;
+import com.stockmaster.backend.dto.TransferDto;
+import com.stockmaster.backend.dto.WarehouseListDto;
+import com.stockmaster.backend.entity.InventoryMovement;
+import com.stockmaster.backend.service.DashboardService;
+import com.stockmaster.backend.service.InventoryMovementService;
+import com.stockmaster.backend.service.ProductService;
+import com.stockmaster.backend.service.WarehouseService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rutas calientes de la capa de servicio contra PostgreSQL con N productos × M almacenes × K movimientos.
+ * Las escrituras eligen producto y almacén al azar para no concentrar la contención en una sola fila.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ServiceBenchmark {
+
+    @Param("1000")
+    public int products;
+
+    @Param("10")
+    public int warehouses;
+
+    @Param("100000")
+    public int movements;
+
+    private ConfigurableApplicationContext context;
+    private BenchmarkDataGenerator.Dataset dataset;
+
+    private InventoryMovementService movementService;
+    private ProductService productService;
+    private WarehouseService warehouseService;
+    private DashboardService dashboardService;
+
+    @State(Scope.Thread)
+    public static class Picker {
+        final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        dataset = BenchmarkContext.populate(context, products, warehouses, movements);
+        movementService = context.getBean(InventoryMovementService.class);
+        productService = context.getBean(ProductService.class);
+        warehouseService = context.getBean(WarehouseService.class);
+        dashboardService = context.getBean(DashboardService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public InventoryMovement registerEntry(Picker picker) {
+        return movementService.registerEntry(movement(picker));
+    }
+
+    @Benchmark
+    public InventoryMovement registerExit(Picker picker) {
+        return movementService.registerExit(movement(picker));
+    }
+
+    @Benchmark
+    public Map<String, Object> transferStock(Picker picker) {
+        long[] warehouseIds = dataset.warehouseIds();
+        int origin = picker.random.nextInt(warehouseIds.length);
+        int destination = (origin + 1 + picker.random.nextInt(warehouseIds.length - 1)) % warehouseIds.length;
+
+        TransferDto dto = new TransferDto();
+        dto.setProductId(randomProduct(picker));
+        dto.setOriginWarehouseId(warehouseIds[origin]);
+        dto.setDestinationWarehouseId(warehouseIds[destination]);
+        dto.setQuantity(1);
+        dto.setUserId(dataset.userId());
+        return movementService.transferStock(dto);
+    }
+
+    @Benchmark
+    public List<ProductListDto> getAllProducts() {
+        return productService.getAllProducts();
+    }
+
+    @Benchmark
+    public List<WarehouseListDto> getAllWarehouses() {
+        return warehouseService.getAllWarehouses(true);
+    }
+
+    @Benchmark
+    public DashboardMetricDto getDashboardSummary() {
+        return dashboardService.getDashboardSummary("Benchmark");
+    }
+
+    private MovementDto movement(Picker picker) {
+        MovementDto dto = new MovementDto();
+        dto.setProductId(randomProduct(picker));
+        dto.setWarehouseId(dataset.warehouseIds()[picker.random.nextInt(dataset.warehouseIds().length)]);
+        dto.setUserId(dataset.userId());
+        dto.setQuantity(1);
+        return dto;
+    }
+
+    private long randomProduct(Picker picker) {
+        return dataset.productIds()[picker.random.nextInt(dataset.productIds().length)];
+    }
+}
@@ -0,0 +1,99 @@
+package com.stockmaster.backend.benchmark;
+
+import com.stockmaster.backend.entity.User;
+import com.stockmaster.backend.security.InMemorySessionStore;
+import com.stockmaster.backend.security.SecurityMetrics;
+import com.stockmaster.backend.security.SessionActivityTracker;
+import com.stockmaster.backend.security.SessionInactivityFilter;
+import com.stockmaster.backend.security.SessionRenewalFilter;
+import com.stockmaster.backend.security.SessionStore;
+import com.stockmaster.backend.security.TokenRevocationService;
+import com.stockmaster.backend.util.JwtAuthenticationFilter;
+import com.stockmaster.backend.util.JwtUtil;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cadena de filtros de seguridad de una petición autenticada (JWT, inactividad y renovación) con
+ * 10.000 sesiones activas en InMemorySessionStore, rotando entre sus tokens. "tokenId" mide por separado
+ * el hash SHA-256 que la cadena calcula una sola vez por petición.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionFilterBenchmark {
+
+    private static final int SESSIONS = 10_000;
+
+    private String[] tokens;
+    private MockHttpServletRequest[] requests;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        JwtUtil jwtUtil = new JwtUtil();
+        SecurityMetrics securityMetrics = new SecurityMetrics();
+        SessionStore sessionStore = new InMemorySessionStore();
+        SessionActivityTracker tracker = new SessionActivityTracker(sessionStore, 30);
+        TokenRevocationService revocationService = new TokenRevocationService(jwtUtil, sessionStore, securityMetrics);
+
+        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(jwtUtil, securityMetrics);
+        SessionInactivityFilter inactivityFilter = new SessionInactivityFilter(revocationService, jwtUtil, tracker);
+        SessionRenewalFilter renewalFilter = new SessionRenewalFilter(jwtUtil, securityMetrics);
+        FilterChain end = (request, response) -> { };
+        FilterChain afterInactivity = (request, response) -> renewalFilter.doFilter(request, response, end);
+        FilterChain afterJwt = (request, response) -> inactivityFilter.doFilter(request, response, afterInactivity);
+        chain = (request, response) -> jwtFilter.doFilter(request, response, afterJwt);
+
+        tokens = new String[SESSIONS];
+        requests = new MockHttpServletRequest[SESSIONS];
+        response = new MockHttpServletResponse();
+        for (int i = 0; i < SESSIONS; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setEmail("benchmark" + i + "@stockmaster.local");
+            user.setRole("OPERADOR");
+            tokens[i] = jwtUtil.createToken(user);
+            requests[i] = new MockHttpServletRequest("GET", "/api/products");
+            requests[i].setServletPath("/api/products");
+            requests[i].addHeader("Authorization", "Bearer " + tokens[i]);
+            // Primera petición de cada token: abre la sesión y llena la caché de claims
+            filter(requests[i]);
+        }
+        if (tracker.size() != SESSIONS) {
+            throw new IllegalStateException("Se esperaban " + SESSIONS + " sesiones, hay " + tracker.size());
+        }
+    }
+
+    private void filter(MockHttpServletRequest request) throws Exception {
+        // Cada invocación es una petición nueva: sin atributos de la anterior (OncePerRequestFilter, id del token)
+        request.clearAttributes();
+        chain.doFilter(request, response);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public int authenticatedRequest() throws Exception {
+        int i = next;
+        next = i + 1 == SESSIONS ? 0 : i + 1;
+        filter(requests[i]);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public String tokenId() {
+        int i = next;
+        next = i + 1 == SESSIONS ? 0 : i + 1;
+        return JwtUtil.tokenId(tokens[i]);
+    }
+}
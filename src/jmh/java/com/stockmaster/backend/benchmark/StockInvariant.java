@@ -0,0 +1,40 @@
+package com.stockmaster.backend.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Comprobación posterior a una carga concurrente: para cada producto y almacén, stock_actual debe
+ * coincidir con la suma de sus movimientos. Cualquier actualización perdida o duplicada aparece aquí.
+ */
+final class StockInvariant {
+
+    // Suma de signos por tipo de movimiento; las transferencias son una SALIDA y una ENTRADA
+    private static final String MISMATCHES_SQL =
+            "SELECT COALESCE(i.id_producto, m.id_producto) AS id_producto, COALESCE(i.id_almacen, m.id_almacen) AS id_almacen, " +
+            "       i.stock_actual, COALESCE(m.neto, 0) AS neto " +
+            "FROM inventario i " +
+            "FULL JOIN (SELECT id_producto, id_almacen, " +
+            "                  SUM(CASE WHEN tipo_movimiento IN ('ENTRADA', 'AJUSTE_POSITIVO') THEN cantidad ELSE -cantidad END) AS neto " +
+            "           FROM movimiento_inventario GROUP BY id_producto, id_almacen) m " +
+            "  ON m.id_producto = i.id_producto AND m.id_almacen = i.id_almacen " +
+            "WHERE i.stock_actual IS DISTINCT FROM COALESCE(m.neto, 0)";
+
+    private StockInvariant() {
+    }
+
+    static boolean verify(JdbcTemplate jdbc) {
+        List<Map<String, Object>> mismatches = jdbc.queryForList(MISMATCHES_SQL);
+        if (mismatches.isEmpty()) {
+            System.out.println("\nInvariante de stock: OK (stock_actual = suma de movimientos en todos los pares)");
+            return true;
+        }
+        System.out.printf("%nInvariante de stock: %d pares producto/almacén no cuadran%n", mismatches.size());
+        mismatches.stream().limit(20).forEach(row -> System.out.printf(
+                "  producto %s, almacén %s: stock_actual=%s, movimientos=%s%n",
+                row.get("id_producto"), row.get("id_almacen"), row.get("stock_actual"), row.get("neto")));
+        return false;
+    }
+}
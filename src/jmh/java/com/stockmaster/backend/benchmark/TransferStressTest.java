@@ -0,0 +1,342 @@
+package com.stockmaster.backend.benchmark;
+
+import com.stockmaster.backend.dto.MovementBatchDto;
+import com.stockmaster.backend.dto.MovementDto;
+import com.stockmaster.backend.dto.StockAdjustmentDto;
+import com.stockmaster.backend.dto.TransferBatchDto;
+import com.stockmaster.backend.dto.TransferLineDto;
+import com.stockmaster.backend.service.InsufficientStockException;
+import com.stockmaster.backend.service.InventoryMovementService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prueba de estrés del motor de transferencias: N hilos lanzan envíos de varias líneas entre pocos
+ * almacenes y productos "calientes", en ambos sentidos (A→B y B→A), directamente contra
+ * InventoryMovementService. Informa transferencias/s y latencias, y al terminar comprueba:
+ *
+ *   - que ninguna transferencia falló por interbloqueo u otro error (solo se admite stock insuficiente),
+ *   - que el stock total de cada producto no cambió (una transferencia solo lo mueve de almacén),
+ *   - que ningún inventario quedó en negativo,
+ *   - que cada envío correcto tiene una referencia propia con salidas y entradas que cuadran,
+ *   - que las primeras entradas concurrentes de un mismo producto en un almacén nuevo (entrada suelta,
+ *     lote y ajuste positivo a la vez) crean una sola fila de inventario y no pierden unidades,
+ *   - el invariante stock_actual = suma de movimientos (StockInvariant).
+ *
+ * Sale con código 1 si algo no se cumple.
+ *
+ *   mvn -Pbenchmark test-compile exec:exec@transfer-stress
+ *   mvn -Pbenchmark test-compile exec:exec@transfer-stress -Dtransferstress.args="--threads=32 --max-lines=10"
+ */
+public final class TransferStressTest {
+
+    private static final String PRODUCT_TOTALS_SQL =
+            "SELECT id_producto, SUM(stock_actual) FROM inventario GROUP BY id_producto";
+    private static final String TRANSFER_COUNT_SQL =
+            "SELECT COUNT(DISTINCT referencia_transferencia) FROM movimiento_inventario";
+    private static final String UNBALANCED_TRANSFERS_SQL =
+            "SELECT COUNT(*) FROM (SELECT referencia_transferencia FROM movimiento_inventario " +
+            "WHERE referencia_transferencia IS NOT NULL GROUP BY referencia_transferencia " +
+            "HAVING SUM(CASE WHEN tipo_movimiento = 'SALIDA' THEN cantidad ELSE 0 END) <> " +
+            "       SUM(CASE WHEN tipo_movimiento = 'ENTRADA' THEN cantidad ELSE 0 END)) t";
+
+    private TransferStressTest() {
+    }
+
+    // ── Opciones (--clave=valor) ─────────────────────────────────────────────
+    record Options(int threads, int warmupSeconds, int durationSeconds, int hotProducts, int hotWarehouses,
+                   int maxLines, int products, int warehouses, int movements) {
+
+        private static final Set<String> KEYS = Set.of("threads", "warmup", "duration", "hot-products",
+                "hot-warehouses", "max-lines", "products", "warehouses", "movements");
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Argumento no válido: " + arg + " (se espera --clave=valor)");
+                }
+                String key = arg.substring(2, arg.indexOf('='));
+                if (!KEYS.contains(key)) {
+                    throw new IllegalArgumentException("Opción desconocida: --" + key + " (válidas: " + KEYS + ")");
+                }
+                values.put(key, arg.substring(arg.indexOf('=') + 1));
+            }
+            Options options = new Options(
+                    Integer.parseInt(values.getOrDefault("threads", "16")),
+                    Integer.parseInt(values.getOrDefault("warmup", "5")),
+                    Integer.parseInt(values.getOrDefault("duration", "30")),
+                    Integer.parseInt(values.getOrDefault("hot-products", "20")),
+                    Integer.parseInt(values.getOrDefault("hot-warehouses", "3")),
+                    Integer.parseInt(values.getOrDefault("max-lines", "5")),
+                    Integer.parseInt(values.getOrDefault("products", "200")),
+                    Integer.parseInt(values.getOrDefault("warehouses", "5")),
+                    Integer.parseInt(values.getOrDefault("movements", "20000")));
+            if (options.threads() < 1 || options.durationSeconds() < 1 || options.maxLines() < 1
+                    || options.hotWarehouses() < 2 || options.hotWarehouses() > options.warehouses()
+                    || options.hotProducts() < 1 || options.hotProducts() > options.products()) {
+                throw new IllegalArgumentException("Se requieren threads >= 1, duration >= 1, max-lines >= 1, " +
+                        "2 <= hot-warehouses <= warehouses y 1 <= hot-products <= products");
+            }
+            return options;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        boolean ok;
+        try (ConfigurableApplicationContext context = BenchmarkContext.start()) {
+            BenchmarkDataGenerator.Dataset dataset = BenchmarkContext.populate(
+                    context, options.products(), options.warehouses(), options.movements());
+            InventoryMovementService service = context.getBean(InventoryMovementService.class);
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+
+            Map<Long, Long> totalsBefore = productTotals(jdbc);
+            long transfersBefore = jdbc.queryForObject(TRANSFER_COUNT_SQL, Long.class);
+
+            System.out.printf("Transferencias: %d hilos, %ds de calentamiento + %ds medidos, hasta %d lineas por envio, " +
+                            "%d productos x %d almacenes calientes%n",
+                    options.threads(), options.warmupSeconds(), options.durationSeconds(), options.maxLines(),
+                    options.hotProducts(), options.hotWarehouses());
+            List<Worker> warmup = options.warmupSeconds() > 0
+                    ? run(service, dataset, options, options.warmupSeconds(), 1000)
+                    : List.of();
+            List<Worker> workers = run(service, dataset, options, options.durationSeconds(), 0);
+            ok = report(workers, options.durationSeconds());
+
+            long committed = warmup.stream().mapToLong(w -> w.count).sum() + workers.stream().mapToLong(w -> w.count).sum();
+            ok &= verify(jdbc, totalsBefore, transfersBefore, committed);
+            ok &= verifyFirstEntries(service, jdbc, dataset, options);
+            ok &= StockInvariant.verify(jdbc);
+        }
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static List<Worker> run(InventoryMovementService service, BenchmarkDataGenerator.Dataset dataset,
+                                    Options options, int seconds, long seedOffset) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService pool = Executors.newFixedThreadPool(options.threads());
+        List<Worker> workers = new ArrayList<>(options.threads());
+        List<Future<?>> futures = new ArrayList<>(options.threads());
+        for (int i = 0; i < options.threads(); i++) {
+            Worker worker = new Worker(service, dataset, options, seedOffset + i);
+            workers.add(worker);
+            futures.add(pool.submit(() -> worker.runUntil(deadline)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        return workers;
+    }
+
+    // ── Hilo de carga: envíos aleatorios entre los almacenes calientes ───────
+    private static final class Worker {
+
+        private final InventoryMovementService service;
+        private final BenchmarkDataGenerator.Dataset dataset;
+        private final Options options;
+        private final SplittableRandom random;
+
+        long[] samples = new long[1024];
+        int count;
+        long lines;
+        int insufficientStock;
+        final Map<String, Integer> errors = new TreeMap<>();
+
+        Worker(InventoryMovementService service, BenchmarkDataGenerator.Dataset dataset, Options options, long seed) {
+            this.service = service;
+            this.dataset = dataset;
+            this.options = options;
+            this.random = new SplittableRandom(seed);
+        }
+
+        void runUntil(long deadline) {
+            while (System.nanoTime() < deadline) {
+                TransferBatchDto dto = randomTransfer();
+                long start = System.nanoTime();
+                try {
+                    service.transferStockBatch(dto);
+                } catch (InsufficientStockException e) {
+                    insufficientStock++;
+                    continue;
+                } catch (RuntimeException e) {
+                    errors.merge(e.getClass().getSimpleName(), 1, Integer::sum);
+                    continue;
+                }
+                if (count == samples.length) {
+                    samples = Arrays.copyOf(samples, count * 2);
+                }
+                samples[count++] = System.nanoTime() - start;
+                lines += dto.getLines().size();
+            }
+        }
+
+        private TransferBatchDto randomTransfer() {
+            int origin = random.nextInt(options.hotWarehouses());
+            int destination = (origin + 1 + random.nextInt(options.hotWarehouses() - 1)) % options.hotWarehouses();
+            int lineCount = 1 + random.nextInt(options.maxLines());
+            List<TransferLineDto> lines = new ArrayList<>(lineCount);
+            for (int i = 0; i < lineCount; i++) {
+                lines.add(new TransferLineDto(dataset.productIds()[random.nextInt(options.hotProducts())],
+                        1 + random.nextInt(5)));
+            }
+            TransferBatchDto dto = new TransferBatchDto();
+            dto.setOriginWarehouseId(dataset.warehouseIds()[origin]);
+            dto.setDestinationWarehouseId(dataset.warehouseIds()[destination]);
+            dto.setUserId(dataset.userId());
+            dto.setMotive("Prueba de estrés");
+            dto.setLines(lines);
+            return dto;
+        }
+    }
+
+    // ── Informe y comprobaciones ─────────────────────────────────────────────
+    private static boolean report(List<Worker> workers, int seconds) {
+        long[] samples = workers.stream()
+                .flatMapToLong(w -> Arrays.stream(w.samples, 0, w.count))
+                .sorted()
+                .toArray();
+        long lines = workers.stream().mapToLong(w -> w.lines).sum();
+        int insufficient = workers.stream().mapToInt(w -> w.insufficientStock).sum();
+        Map<String, Integer> errors = new TreeMap<>();
+        workers.forEach(w -> w.errors.forEach((type, n) -> errors.merge(type, n, Integer::sum)));
+
+        System.out.printf("%n%-14s %10s %10s %10s %10s %10s %10s%n",
+                "Envios", "Lineas", "Envios/s", "Lineas/s", "p50 (ms)", "p99 (ms)", "Max (ms)");
+        System.out.printf("%-14d %10d %10.1f %10.1f %10.2f %10.2f %10.2f%n",
+                samples.length, lines, (double) samples.length / seconds, (double) lines / seconds,
+                LoadTest.percentileMs(samples, 0.50), LoadTest.percentileMs(samples, 0.99),
+                samples.length == 0 ? 0 : samples[samples.length - 1] / 1e6);
+        System.out.printf("Rechazados por stock insuficiente: %d%n", insufficient);
+        if (errors.isEmpty()) {
+            System.out.println("Errores (interbloqueos, timeouts, otros): 0");
+            return true;
+        }
+        System.out.println("Errores (interbloqueos, timeouts, otros): " + errors);
+        return false;
+    }
+
+    private static boolean verify(JdbcTemplate jdbc, Map<Long, Long> totalsBefore, long transfersBefore, long committed) {
+        boolean ok = true;
+
+        Map<Long, Long> totalsAfter = productTotals(jdbc);
+        long drifted = totalsBefore.keySet().stream()
+                .filter(id -> !totalsBefore.get(id).equals(totalsAfter.get(id)))
+                .count();
+        System.out.printf("%nStock total por producto: %s%n",
+                drifted == 0 ? "OK (sin cambios)" : drifted + " productos con diferencias");
+        ok &= drifted == 0;
+
+        long negative = jdbc.queryForObject("SELECT COUNT(*) FROM inventario WHERE stock_actual < 0", Long.class);
+        System.out.printf("Inventarios en negativo: %d%n", negative);
+        ok &= negative == 0;
+
+        long references = jdbc.queryForObject(TRANSFER_COUNT_SQL, Long.class) - transfersBefore;
+        long unbalanced = jdbc.queryForObject(UNBALANCED_TRANSFERS_SQL, Long.class);
+        System.out.printf("Referencias nuevas: %d para %d envios registrados, %d descuadradas%n",
+                references, committed, unbalanced);
+        ok &= references == committed && unbalanced == 0;
+        return ok;
+    }
+
+    // ── Primeras entradas concurrentes ───────────────────────────────────────
+
+    /**
+     * Para cada producto caliente, todos los hilos registran a la vez 1 unidad en un almacén sin inventario,
+     * repartidos entre registerEntry, registerBatch y registerStockAdjustment. Cada producto debe terminar
+     * con una sola fila y tantas unidades como hilos.
+     */
+    private static boolean verifyFirstEntries(InventoryMovementService service, JdbcTemplate jdbc,
+                                              BenchmarkDataGenerator.Dataset dataset, Options options) throws Exception {
+        Long warehouseId = jdbc.queryForObject("INSERT INTO almacen (nombre_almacen, is_active) " +
+                "VALUES ('Primeras entradas', true) RETURNING id_almacen", Long.class);
+        ExecutorService pool = Executors.newFixedThreadPool(options.threads());
+        Map<String, Integer> errors = new TreeMap<>();
+        try {
+            for (int p = 0; p < options.hotProducts(); p++) {
+                Long productId = dataset.productIds()[p];
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>(options.threads());
+                for (int t = 0; t < options.threads(); t++) {
+                    int path = t % 3;
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        firstEntry(service, path, productId, warehouseId, dataset.userId());
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        errors.merge(e.getCause().getClass().getSimpleName(), 1, Integer::sum);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        long wrongPairs = jdbc.queryForObject("SELECT COUNT(*) FROM (SELECT id_producto FROM inventario " +
+                "WHERE id_almacen = ? GROUP BY id_producto HAVING COUNT(*) <> 1 OR SUM(stock_actual) <> ?) t",
+                Long.class, warehouseId, options.threads());
+        long pairs = jdbc.queryForObject("SELECT COUNT(*) FROM inventario WHERE id_almacen = ?", Long.class, warehouseId);
+        System.out.printf("Primeras entradas concurrentes: %d productos x %d hilos, errores %s, %d filas incorrectas%n",
+                options.hotProducts(), options.threads(), errors.isEmpty() ? "0" : errors, wrongPairs);
+        return errors.isEmpty() && wrongPairs == 0 && pairs == options.hotProducts();
+    }
+
+    private static void firstEntry(InventoryMovementService service, int path, Long productId, Long warehouseId,
+                                   Long userId) {
+        MovementDto movement = new MovementDto();
+        movement.setProductId(productId);
+        movement.setWarehouseId(warehouseId);
+        movement.setUserId(userId);
+        movement.setQuantity(1);
+        movement.setMovementType("ENTRADA");
+        movement.setMotive("Primera entrada concurrente");
+        switch (path) {
+            case 0 -> service.registerEntry(movement);
+            case 1 -> {
+                MovementBatchDto batch = new MovementBatchDto();
+                batch.setMovements(List.of(movement));
+                service.registerBatch(batch);
+            }
+            default -> {
+                StockAdjustmentDto adjustment = new StockAdjustmentDto();
+                adjustment.setProductId(productId);
+                adjustment.setWarehouseId(warehouseId);
+                adjustment.setUserId(userId);
+                adjustment.setAdjustmentType("POSITIVO");
+                adjustment.setQuantity(1);
+                adjustment.setReason("CONTEO_FISICO");
+                service.registerStockAdjustment(adjustment);
+            }
+        }
+    }
+
+    private static Map<Long, Long> productTotals(JdbcTemplate jdbc) {
+        Map<Long, Long> totals = new HashMap<>();
+        jdbc.query(PRODUCT_TOTALS_SQL, rs -> {
+            totals.put(rs.getLong(1), rs.getLong(2));
+        });
+        return totals;
+    }
+}
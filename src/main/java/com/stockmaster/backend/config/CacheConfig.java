@@ -0,0 +1,27 @@
+package com.stockmaster.backend.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Cachés de datos de referencia (categorías, almacenes, proveedores).
+ *
+ * - Entidades: caché de segundo nivel de Hibernate (regiones category, warehouse y supplier en
+ *   application.conf). findById y CategoryRepository.findByName no vuelven a la base de datos y
+ *   Hibernate invalida las entradas al modificarlas.
+ * - Listados para selectores: caché de Spring (Caffeine) con los nombres de abajo. Los métodos que
+ *   crean, modifican, eliminan o restauran datos de referencia (o productos, que cambian los contadores
+ *   de los listados) los vacían con @CacheEvict.
+ *
+ * El interceptor de caché va por fuera del transaccional, así que el @CacheEvict se aplica después del
+ * commit y una lectura concurrente no vuelve a guardar los datos anteriores.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String CATEGORY_LIST = "categoryList";
+    public static final String ACTIVE_SUPPLIER_LIST = "activeSupplierList";
+    public static final String WAREHOUSE_SELECTION = "warehouseSelection";
+}
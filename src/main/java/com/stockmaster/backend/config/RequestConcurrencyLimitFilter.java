@@ -0,0 +1,134 @@
+package com.stockmaster.backend.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limita las peticiones a la API que se atienden a la vez. Con hilos virtuales Tomcat ya no tiene
+ * tope de hilos: sin este límite, miles de peticiones simultáneas esperarían una conexión de Hikari
+ * hasta agotar su connection-timeout. Aquí esperan en orden de llegada (como mucho queueTimeoutMs)
+ * y, si no hay hueco, se responde 503 con Retry-After sin haber tocado la base de datos.
+ * <p>
+ * En las respuestas asíncronas (exportaciones e historial de movimientos con StreamingResponseBody) el
+ * hilo de la petición vuelve antes de que la escritura, y su transacción con conexión de Hikari, termine:
+ * el permiso se conserva hasta que el AsyncContext se completa, falla o expira.
+ */
+public class RequestConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestConcurrencyLimitFilter.class);
+
+    private final Semaphore permits;
+    private final int limit;
+    private final long queueTimeoutMs;
+
+    private final LongAdder rejected = new LongAdder();
+
+    public RequestConcurrencyLimitFilter(int limit, long queueTimeoutMs) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("El límite de peticiones concurrentes debe ser mayor que cero.");
+        }
+        this.permits = new Semaphore(limit, true);
+        this.limit = limit;
+        this.queueTimeoutMs = queueTimeoutMs;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            logger.debug("Petición rechazada por saturación: {} {}", request.getMethod(), request.getRequestURI());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"message\":\"Servidor ocupado, intente nuevamente.\"}");
+            return;
+        }
+        PermitRelease release = new PermitRelease();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(release);
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                release.run();
+            }
+        }
+    }
+
+    // Devuelve el permiso una sola vez, al volver la petición o al terminar su parte asíncrona
+    private final class PermitRelease implements AsyncListener, Runnable {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void run() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Si se reinicia el modo asíncrono hay que volver a registrarse en el nuevo contexto
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    // ── Métricas ─────────────────────────────────────────────────────────────
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getActiveCount() {
+        return limit - permits.availablePermits();
+    }
+
+    public int getQueuedCount() {
+        return permits.getQueueLength();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
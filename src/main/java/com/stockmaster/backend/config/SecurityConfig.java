@@ -6,6 +6,7 @@ import com.stockmaster.backend.util.JwtAuthenticationFilter;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.enums.SecuritySchemeType;
 import io.swagger.v3.oas.annotations.security.SecurityScheme;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -40,14 +41,18 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final SessionInactivityFilter sessionInactivityFilter;
     private final SessionRenewalFilter sessionRenewalFilter;
+    // Puerto interno de Actuator (management.server.port); -1 si Actuator comparte el puerto de la API
+    private final int managementPort;
 
 
     public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
                           SessionInactivityFilter sessionInactivityFilter,
-                          SessionRenewalFilter sessionRenewalFilter) {
+                          SessionRenewalFilter sessionRenewalFilter,
+                          @Value("${management.server.port:-1}") int managementPort) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.sessionInactivityFilter = sessionInactivityFilter;
         this.sessionRenewalFilter = sessionRenewalFilter;
+        this.managementPort = managementPort;
     }
 
     @Bean
@@ -58,6 +63,13 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         // Permite acceso público a la documentación de Swagger
                         .requestMatchers("/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                        // Salud: /actuator/health en el puerto interno, /livez y /readyz en el de la API
+                        .requestMatchers(HttpMethod.GET, "/actuator/health", "/livez", "/readyz").permitAll()
+                        // Scrape de Prometheus sin token solo por el puerto interno (el resto de Actuator requiere
+                        // autenticación): expone rutas, estado de Hikari, sesiones y desfases del libro
+                        .requestMatchers(request -> request.getLocalPort() == managementPort
+                                && HttpMethod.GET.matches(request.getMethod())
+                                && "/actuator/prometheus".equals(request.getRequestURI())).permitAll()
                         // Permite acceso público al login
                         .requestMatchers(HttpMethod.POST, "/api/auth/login").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/dashboard/**", "/api/reports/**")
@@ -0,0 +1,40 @@
+package com.stockmaster.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Modo de hilos virtuales (opt-in con spring.threads.virtual.enabled=true).
+ *
+ * Spring Boot ya pasa a hilos virtuales Tomcat, el ejecutor de las respuestas asíncronas de MVC
+ * (exportaciones en streaming) y el planificador de @Scheduled. Lo que falta es el tope que antes
+ * ponía server.tomcat.threads.max: aquí se limita la concurrencia de /api/* en función del pool de
+ * Hikari (por defecto 2 peticiones por conexión), para que la cola no se forme en getConnection.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+    @Bean
+    public RequestConcurrencyLimitFilter requestConcurrencyLimitFilter(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${request.concurrency.per-connection:2}") int perConnection,
+            @Value("${request.concurrency.queue-timeout-ms:5000}") long queueTimeoutMs) {
+        return new RequestConcurrencyLimitFilter(maximumPoolSize * perConnection, queueTimeoutMs);
+    }
+
+    // Antes de la cadena de Spring Security: una petición que no entra no llega a validar el token
+    @Bean
+    public FilterRegistrationBean<RequestConcurrencyLimitFilter> requestConcurrencyLimitRegistration(
+            RequestConcurrencyLimitFilter filter) {
+        FilterRegistrationBean<RequestConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+}
@@ -2,13 +2,16 @@ package com.stockmaster.backend.controller;
 
 import com.stockmaster.backend.dto.WarehouseStockDto;
 import com.stockmaster.backend.service.InventoryMovementService;
+import com.stockmaster.backend.service.StockLedgerService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -19,6 +22,8 @@ public class InventoryController {
 
     @Autowired
     private InventoryMovementService inventoryMovementService;
+    @Autowired
+    private StockLedgerService stockLedgerService;
 
     /**
      * Devuelve el stock de un producto desglosado por almacén.
@@ -52,4 +57,36 @@ public class InventoryController {
             return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
     }
+
+    /**
+     * Stock de un producto en un almacén en una fecha pasada (auditorías de cierre).
+     * timestamp en ISO local, p. ej. 2025-03-31T23:59:59; incluye los movimientos de ese instante.
+     */
+    @GetMapping(value = "/stock-at", params = "productId")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'OPERADOR')")
+    public ResponseEntity<?> getStockAt(
+            @RequestParam Long productId,
+            @RequestParam Long warehouseId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime timestamp) {
+        try {
+            int stock = stockLedgerService.getStockAt(productId, warehouseId, timestamp);
+            return ResponseEntity.ok(Map.of("productId", productId, "warehouseId", warehouseId,
+                    "timestamp", timestamp, "stock", stock));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // Variante sin productId: todo el almacén en esa fecha, con su valoración
+    @GetMapping(value = "/stock-at", params = "!productId")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'OPERADOR')")
+    public ResponseEntity<?> getWarehouseStockAt(
+            @RequestParam Long warehouseId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime timestamp) {
+        try {
+            return ResponseEntity.ok(stockLedgerService.getWarehouseStockAt(warehouseId, timestamp));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
 }
@@ -1,19 +1,26 @@
 package com.stockmaster.backend.controller;
 
+import com.stockmaster.backend.dto.MovementBatchDto;
+import com.stockmaster.backend.dto.MovementBatchResultDto;
 import com.stockmaster.backend.dto.MovementDto;
+import com.stockmaster.backend.dto.MovementFilterDto;
 import com.stockmaster.backend.dto.StockAdjustmentDto;
+import com.stockmaster.backend.dto.TransferBatchDto;
 import com.stockmaster.backend.dto.TransferDto;
 import com.stockmaster.backend.entity.InventoryMovement;
 import com.stockmaster.backend.service.InventoryMovementService;
+import com.stockmaster.backend.service.MovementJournal;
+import com.stockmaster.backend.service.MovementJournalFullException;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -23,12 +30,31 @@ public class InventoryMovementController {
 
     @Autowired
     private InventoryMovementService movementService;
+    // Solo con movements.write-behind.enabled=true: entradas y salidas con commit agrupado
+    @Autowired(required = false)
+    private MovementJournal movementJournal;
 
-    // ── Historial ────────────────────────────────────────────────────────────
+    // ── Historial completo ───────────────────────────────────────────────────
+    // Mismo arreglo JSON de siempre, transmitido fila a fila; para recorrerlo por partes usar /history
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'OPERADOR')")
-    public ResponseEntity<List<MovementDto>> getMovementHistory() {
-        return ResponseEntity.ok(movementService.getAllMovements());
+    public ResponseEntity<StreamingResponseBody> getMovementHistory() {
+        StreamingResponseBody body = movementService::writeAllMovements;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // ── Historial paginado por cursor, con filtros opcionales ────────────────
+    // GET /api/movements/history?productId=&warehouseId=&userId=&movementType=&from=&to=&cursor=&limit=
+    @GetMapping("/history")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'OPERADOR')")
+    public ResponseEntity<?> getMovementHistoryPage(MovementFilterDto filter,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(movementService.getMovementHistoryPage(filter, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
     }
 
     // ── HU08 — Registro de entradas ──────────────────────────────────────────
@@ -36,13 +62,18 @@ public class InventoryMovementController {
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'OPERADOR')")
     public ResponseEntity<?> registerEntry(@RequestBody MovementDto movementDto) {
         try {
-            InventoryMovement movement = movementService.registerEntry(movementDto);
+            // Con escritura diferida se devuelve el MovementDto del movimiento ya confirmado
+            Object movement = movementJournal != null
+                    ? movementJournal.submit(movementDto, "ENTRADA")
+                    : movementService.registerEntry(movementDto);
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Entrada de stock registrada exitosamente.");
             response.put("movement", movement);
             return new ResponseEntity<>(response, HttpStatus.CREATED);
         } catch (IllegalArgumentException | IllegalStateException e) {
             return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (MovementJournalFullException e) {
+            return journalFull(e);
         }
     }
 
@@ -51,13 +82,36 @@ public class InventoryMovementController {
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'OPERADOR')")
     public ResponseEntity<?> registerExit(@RequestBody MovementDto movementDto) {
         try {
-            InventoryMovement movement = movementService.registerExit(movementDto);
+            Object movement = movementJournal != null
+                    ? movementJournal.submit(movementDto, "SALIDA")
+                    : movementService.registerExit(movementDto);
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Salida de stock registrada exitosamente.");
             response.put("movement", movement);
             return new ResponseEntity<>(response, HttpStatus.CREATED);
         } catch (IllegalArgumentException | IllegalStateException e) {
             return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (MovementJournalFullException e) {
+            return journalFull(e);
+        }
+    }
+
+    private static ResponseEntity<?> journalFull(MovementJournalFullException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(Map.of("message", e.getMessage()));
+    }
+
+    // ── Registro por lotes (entradas y salidas en una sola transacción) ──────
+    @PostMapping("/batch")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'OPERADOR')")
+    public ResponseEntity<?> registerBatch(@RequestBody MovementBatchDto batchDto) {
+        try {
+            MovementBatchResultDto result = movementService.registerBatch(batchDto);
+            HttpStatus status = result.isCommitted() ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST;
+            return new ResponseEntity<>(result, status);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
     }
 
@@ -92,4 +146,15 @@ public class InventoryMovementController {
             return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
     }
+
+    // Envío de varios productos con una sola referencia de transferencia
+    @PostMapping("/transfer/batch")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'OPERADOR')")
+    public ResponseEntity<?> transferStockBatch(@RequestBody TransferBatchDto transferBatchDto) {
+        try {
+            return new ResponseEntity<>(movementService.transferStockBatch(transferBatchDto), HttpStatus.CREATED);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
 }
@@ -2,10 +2,16 @@ package com.stockmaster.backend.controller;
 
 import com.stockmaster.backend.dto.ProductDto;
 import com.stockmaster.backend.dto.ProductListDto;
+import com.stockmaster.backend.dto.ProductPageDto;
 import com.stockmaster.backend.entity.Product;
 import com.stockmaster.backend.service.ProductService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -20,6 +26,8 @@ import java.util.Map;
 @SecurityRequirement(name = "BearerAuth")
 public class ProductController {
 
+    private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
+
     @Autowired
     private ProductService productService;
 
@@ -42,11 +50,25 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    // HU05 paginado: GET /api/products/page?page=0&size=50&sort=name,asc
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'OPERADOR')")
+    public ResponseEntity<?> getProductsPage(
+            @PageableDefault(size = 50, sort = "name", direction = Sort.Direction.ASC) Pageable pageable) {
+        try {
+            ProductPageDto page = productService.getProductsPage(pageable);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
     //endpoint para la HU06
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'OPERADOR')")
     public ResponseEntity<?> updateProduct(@PathVariable Long id, @RequestBody ProductDto productDto) {
-        System.out.println("Antes de @PreAuthorize - ID: " + id + ", Autoridades: " + SecurityContextHolder.getContext().getAuthentication().getAuthorities());
+        logger.debug("Actualizando producto {} - Autoridades: {}", id,
+                SecurityContextHolder.getContext().getAuthentication().getAuthorities());
         try {
             Product updatedProduct = productService.updateProduct(id, productDto);
             ProductListDto responseDto = new ProductListDto();
@@ -2,18 +2,28 @@ package com.stockmaster.backend.controller;
 
 import com.stockmaster.backend.dto.MovementReportDto;
 import com.stockmaster.backend.dto.SalesReportDto;
+import com.stockmaster.backend.dto.StockDriftDto;
 import com.stockmaster.backend.dto.StockReportDto;
 import com.stockmaster.backend.service.ReportService;
+import com.stockmaster.backend.service.SalesRollupService;
+import com.stockmaster.backend.service.StockLedgerService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.time.LocalDate;
 
 @RestController
@@ -24,6 +34,10 @@ public class ReportController {
 
     @Autowired
     private ReportService reportService;
+    @Autowired
+    private SalesRollupService salesRollupService;
+    @Autowired
+    private StockLedgerService stockLedgerService;
 
     // HU14 - Reporte de stock bajo
     @GetMapping("/low-stock")
@@ -43,9 +57,76 @@ public class ReportController {
         return ResponseEntity.ok(reportService.getMovementReportByDate(startDate, endDate));
     }
 
-    // HU16 - Reporte de productos más vendidos
+    // HU15 - Exportación del reporte de movimientos en CSV, transmitida fila a fila
+    @GetMapping(value = "/movements", params = "format=" + ReportService.FORMAT_CSV)
+    public ResponseEntity<StreamingResponseBody> exportMovementReportCsv(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return streamMovementReport(startDate, endDate, ReportService.FORMAT_CSV,
+                new MediaType("text", "csv", StandardCharsets.UTF_8));
+    }
+
+    // HU15 - Exportación del reporte de movimientos en NDJSON (un objeto JSON por línea)
+    @GetMapping(value = "/movements", params = "format=" + ReportService.FORMAT_NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportMovementReportNdjson(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return streamMovementReport(startDate, endDate, ReportService.FORMAT_NDJSON, MediaType.APPLICATION_NDJSON);
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamMovementReport(LocalDate startDate, LocalDate endDate,
+                                                                       String format, MediaType mediaType) {
+        if (startDate.isAfter(endDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        String fileName = "movimientos_" + startDate + "_" + endDate + "." + format;
+        StreamingResponseBody body = out -> reportService.exportMovementReport(startDate, endDate, format, out);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    // HU16 - Reporte de productos más vendidos (rango de fechas y top N opcionales)
     @GetMapping("/sales")
-    public ResponseEntity<List<SalesReportDto>> getMostSoldProductsReport() {
-        return ResponseEntity.ok(reportService.getMostSoldProductsReport());
+    public ResponseEntity<?> getMostSoldProductsReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer top) {
+        try {
+            List<SalesReportDto> report = reportService.getMostSoldProductsReport(startDate, endDate, top);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // HU16 - Reconstrucción del acumulado diario de ventas desde el histórico de movimientos
+    @PostMapping("/sales/backfill")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<?> backfillSalesRollup(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        try {
+            int rows = salesRollupService.backfill(startDate, endDate);
+            return ResponseEntity.ok(Map.of("message", "Acumulado de ventas reconstruido.", "rows", rows));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // Libro de movimientos: pares producto/almacén en los que INVENTARIO no cuadra con los movimientos
+    @GetMapping("/ledger/drift")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<List<StockDriftDto>> getLedgerDrift() {
+        return ResponseEntity.ok(stockLedgerService.verify());
+    }
+
+    // Regenera los cortes diarios de stock (p. ej. tras importar movimientos con fechas pasadas)
+    @PostMapping("/ledger/rebuild")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<?> rebuildLedgerCheckpoints() {
+        int checkpoints = stockLedgerService.rebuildCheckpoints();
+        return ResponseEntity.ok(Map.of("message", "Cortes de stock regenerados.", "checkpoints", checkpoints));
     }
 }
@@ -83,11 +83,27 @@ public class WarehouseController {
     // HU10 - Visualización de almacenes
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'OPERADOR')")
-    public ResponseEntity<List<WarehouseListDto>> getAllWarehouses() {
-        List<WarehouseListDto> warehouses = warehouseService.getAllWarehouses();
+    public ResponseEntity<List<WarehouseListDto>> getAllWarehouses(
+            @RequestParam(defaultValue = "true") boolean includeProducts) {
+        List<WarehouseListDto> warehouses = warehouseService.getAllWarehouses(includeProducts);
         return ResponseEntity.ok(warehouses);
     }
 
+    // HU10 - Detalle paginado de productos de un almacén (para usar con includeProducts=false)
+    @GetMapping("/{id}/products")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'OPERADOR')")
+    public ResponseEntity<?> getWarehouseProducts(@PathVariable Long id,
+                                                  @RequestParam(defaultValue = "0") int page,
+                                                  @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(warehouseService.getWarehouseProducts(id, page, size));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
     // HU18. Visualizar almacenes inactivos (Solo Administrador)
     @GetMapping("/inactive")
     @PreAuthorize("hasRole('ADMINISTRADOR')")
@@ -1,8 +1,12 @@
 package com.stockmaster.backend.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor // Usado por las proyecciones JPQL (SELECT new ...)
 public class CategoryListDto {
     private Long id;
     private String name;
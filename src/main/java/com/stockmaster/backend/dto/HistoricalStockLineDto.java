@@ -0,0 +1,16 @@
+package com.stockmaster.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Stock de un producto en un almacén en una fecha pasada, valorado al precio actual del producto
+@Data
+@AllArgsConstructor
+public class HistoricalStockLineDto {
+    private Long productId;
+    private String sku;
+    private String productName;
+    private int stock;
+    private double unitPrice;
+    private double value;
+}
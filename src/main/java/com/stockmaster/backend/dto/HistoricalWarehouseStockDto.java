@@ -0,0 +1,20 @@
+package com.stockmaster.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Stock de todo un almacén en una fecha. checkpoint es el corte desde el que se reconstruyó (null si no había)
+@Data
+@AllArgsConstructor
+public class HistoricalWarehouseStockDto {
+    private Long warehouseId;
+    private String warehouseName;
+    private LocalDateTime timestamp;
+    private LocalDateTime checkpoint;
+    private long totalUnits;
+    private double totalValue;
+    private List<HistoricalStockLineDto> items;
+}
@@ -0,0 +1,14 @@
+package com.stockmaster.backend.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class MovementBatchDto {
+
+    /** "TODO_O_NADA" (por defecto) o "MEJOR_ESFUERZO" */
+    private String mode;
+
+    /** Cada ítem debe indicar movementType "ENTRADA" o "SALIDA" */
+    private List<MovementDto> movements;
+}
@@ -0,0 +1,14 @@
+package com.stockmaster.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class MovementBatchItemResultDto {
+    private int index;
+    private boolean success;
+    private Long movementId;
+    private Integer resultingStock;
+    private String message;
+}
@@ -0,0 +1,14 @@
+package com.stockmaster.backend.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class MovementBatchResultDto {
+    private String mode;
+    // false cuando el lote TODO_O_NADA tuvo algún error y no se persistió nada
+    private boolean committed;
+    private int successCount;
+    private int failureCount;
+    private List<MovementBatchItemResultDto> results;
+}
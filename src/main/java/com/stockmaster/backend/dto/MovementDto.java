@@ -1,9 +1,13 @@
 package com.stockmaster.backend.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor // Usado por las proyecciones JPQL (SELECT new ...MovementDto(...))
 public class MovementDto {
     private Long productId;
     private Long warehouseId;
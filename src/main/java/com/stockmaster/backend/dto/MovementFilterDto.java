@@ -0,0 +1,21 @@
+package com.stockmaster.backend.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+// Filtros opcionales del historial de movimientos (se enlazan desde los query params)
+@Data
+public class MovementFilterDto {
+    private Long productId;
+    private Long warehouseId;
+    private Long userId;
+    private String movementType;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+}
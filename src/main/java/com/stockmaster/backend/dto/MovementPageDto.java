@@ -0,0 +1,15 @@
+package com.stockmaster.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class MovementPageDto {
+    private List<MovementDto> items;
+    // Cursor opaco para pedir la siguiente página; null cuando no hay más resultados
+    private String nextCursor;
+    private boolean hasMore;
+}
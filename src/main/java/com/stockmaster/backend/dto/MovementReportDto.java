@@ -1,9 +1,13 @@
 package com.stockmaster.backend.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class MovementReportDto {
     private LocalDateTime movementDate;
     private String productName;
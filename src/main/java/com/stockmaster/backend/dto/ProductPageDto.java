@@ -0,0 +1,16 @@
+package com.stockmaster.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProductPageDto {
+    private List<ProductListDto> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+}
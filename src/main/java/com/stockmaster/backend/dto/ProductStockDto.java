@@ -1,9 +1,13 @@
 package com.stockmaster.backend.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 // DTO para representar un producto y su cantidad (stock) dentro de un almacén específico.
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class ProductStockDto {
     private Long productId;
     private String productName;
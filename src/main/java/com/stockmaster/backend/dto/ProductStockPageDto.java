@@ -0,0 +1,17 @@
+package com.stockmaster.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProductStockPageDto {
+    private Long warehouseId;
+    private List<ProductStockDto> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+}
@@ -0,0 +1,14 @@
+package com.stockmaster.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Par producto/almacén cuyo stock en INVENTARIO no coincide con el del libro de movimientos
+@Data
+@AllArgsConstructor
+public class StockDriftDto {
+    private Long productId;
+    private Long warehouseId;
+    private int inventoryStock;
+    private int ledgerStock;
+}
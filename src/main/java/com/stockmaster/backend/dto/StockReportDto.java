@@ -1,8 +1,12 @@
 package com.stockmaster.backend.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class StockReportDto {
     private Long productId;
     private String productName;
@@ -0,0 +1,14 @@
+package com.stockmaster.backend.dto;
+
+import lombok.Data;
+import java.util.List;
+
+// Envío con varios productos entre dos almacenes: todas las líneas se registran o ninguna
+@Data
+public class TransferBatchDto {
+    private Long originWarehouseId;
+    private Long destinationWarehouseId;
+    private Long userId;
+    private String motive;
+    private List<TransferLineDto> lines;
+}
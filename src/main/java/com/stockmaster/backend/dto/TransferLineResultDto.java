@@ -0,0 +1,16 @@
+package com.stockmaster.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TransferLineResultDto {
+    private Long productId;
+    private int quantity;
+    private Long exitMovementId;
+    private Long entryMovementId;
+    // Stock de cada almacén tras aplicar la línea (acumulado si el producto se repite en el envío)
+    private int originStock;
+    private int destinationStock;
+}
@@ -0,0 +1,12 @@
+package com.stockmaster.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class TransferResultDto {
+    private String transferReference;
+    private List<TransferLineResultDto> lines;
+}
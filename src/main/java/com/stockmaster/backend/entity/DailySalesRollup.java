@@ -0,0 +1,41 @@
+package com.stockmaster.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * HU16: acumulado diario de ventas (SALIDAS que no son transferencias) por producto y almacén.
+ * Los ingresos se calculan con el precio vigente en el momento de cada salida.
+ */
+@Data
+@Entity
+@Table(name = "VENTA_DIARIA", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_venta_diaria_dia_producto_almacen",
+                columnNames = {"fecha", "id_producto", "id_almacen"})
+})
+public class DailySalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_venta_diaria")
+    private Long id;
+
+    @Column(name = "fecha", nullable = false)
+    private LocalDate day;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_producto", nullable = false)
+    private Product product;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_almacen", nullable = false)
+    private Warehouse warehouse;
+
+    @Column(name = "unidades_vendidas", nullable = false)
+    private long unitsSold;
+
+    @Column(name = "ingresos", nullable = false)
+    private double revenue;
+}
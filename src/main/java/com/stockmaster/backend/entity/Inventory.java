@@ -5,7 +5,11 @@ import lombok.Data;
 
 @Data
 @Entity
-@Table(name = "INVENTARIO")
+// idx_inventario_bajo_stock es un índice parcial (where bajo_stock) y no se puede declarar aquí: lo crea V4
+@Table(name = "INVENTARIO", uniqueConstraints = {
+        // Una fila por producto y almacén: las altas concurrentes del mismo par no se duplican
+        @UniqueConstraint(name = "uk_inventario_producto_almacen", columnNames = {"id_producto", "id_almacen"})
+})
 public class Inventory {
 
     @Id
@@ -26,4 +30,10 @@ public class Inventory {
 
     @Column(name = "stock_minimo", nullable = false)
     private int minStock;
+
+    // HU14: columna generada por PostgreSQL, se recalcula en cada INSERT/UPDATE de stock sin importar
+    // la ruta de escritura. Permite buscar el stock bajo por índice en vez de comparar dos columnas fila a fila.
+    @Column(name = "bajo_stock", insertable = false, updatable = false,
+            columnDefinition = "boolean GENERATED ALWAYS AS (stock_actual < stock_minimo) STORED")
+    private boolean lowStock;
 }
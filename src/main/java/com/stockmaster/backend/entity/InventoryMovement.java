@@ -8,7 +8,16 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "MOVIMIENTO_INVENTARIO")
+@Table(name = "MOVIMIENTO_INVENTARIO", indexes = {
+        // Los crean las migraciones V1 y V2 (db/migration)
+        // Reconstrucción del stock en una fecha (StockLedgerService): cola de movimientos tras un corte,
+        // por par producto/almacén, por almacén o de todo el libro
+        @Index(name = "idx_movimiento_producto_almacen_fecha", columnList = "id_producto, id_almacen, fecha_movimiento"),
+        @Index(name = "idx_movimiento_almacen_fecha", columnList = "id_almacen, fecha_movimiento"),
+        @Index(name = "idx_movimiento_fecha", columnList = "fecha_movimiento, id_movimiento"),
+        // Historial filtrado por tipo y producto
+        @Index(name = "idx_movimiento_tipo_producto_fecha", columnList = "tipo_movimiento, id_producto, fecha_movimiento")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class InventoryMovement {
 
@@ -0,0 +1,37 @@
+package com.stockmaster.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Corte diario del libro de movimientos: el stock de cada producto y almacén con los movimientos
+ * anteriores a fechaCorte queda en SNAPSHOT_STOCK (ver StockLedgerService). Un corte completo guarda
+ * todos los pares; uno incremental, solo los que cambiaron desde el corte anterior.
+ */
+@Data
+@Entity
+@Table(name = "CORTE_STOCK", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_corte_stock_fecha", columnNames = "fecha_corte")
+})
+public class StockCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_corte")
+    private Long id;
+
+    @Column(name = "fecha_corte", nullable = false)
+    private LocalDateTime cutoff;
+
+    @Column(name = "creado_en", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Filas de SNAPSHOT_STOCK del corte
+    @Column(name = "pares", nullable = false)
+    private int pairs;
+
+    @Column(name = "completo", nullable = false)
+    private boolean full = true;
+}
@@ -0,0 +1,41 @@
+package com.stockmaster.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Stock de un producto en un almacén en un corte. Un corte completo guarda los pares con stock distinto
+ * de cero; uno incremental, los pares que cambiaron (con stock 0 si se agotaron). El valor de un par es el
+ * de su fila más reciente desde el último corte completo; sin fila, 0. Se escribe con SQL nativo desde
+ * StockLedgerService.
+ */
+@Data
+@Entity
+@Table(name = "SNAPSHOT_STOCK", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_snapshot_stock_corte_almacen_producto",
+                columnNames = {"id_corte", "id_almacen", "id_producto"})
+}, indexes = {
+        @Index(name = "idx_snapshot_stock_almacen_producto_corte", columnList = "id_almacen, id_producto, id_corte")
+})
+public class StockSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_snapshot")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_corte", nullable = false)
+    private StockCheckpoint checkpoint;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_producto", nullable = false)
+    private Product product;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_almacen", nullable = false)
+    private Warehouse warehouse;
+
+    @Column(name = "stock", nullable = false)
+    private int stock;
+}
@@ -0,0 +1,19 @@
+package com.stockmaster.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Se publica al crear, eliminar (borrado lógico) o restaurar productos, almacenes y usuarios.
+ */
+@Data
+@AllArgsConstructor
+public class ActiveCountChangedEvent {
+
+    public static final String PRODUCT = "PRODUCTO";
+    public static final String WAREHOUSE = "ALMACEN";
+    public static final String USER = "USUARIO";
+
+    private String entity;
+    private int delta;
+}
@@ -0,0 +1,24 @@
+package com.stockmaster.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Se publica por cada fila nueva en MOVIMIENTO_INVENTARIO, con los datos ya resueltos
+ * para que los consumidores no tengan que volver a consultar la base de datos.
+ */
+@Data
+@AllArgsConstructor
+public class MovementRecordedEvent {
+    private Long movementId;
+    private Long productId;
+    private String productName;
+    private Long warehouseId;
+    private String warehouseName;
+    private String movementType;
+    private int quantity;
+    private LocalDateTime movementDate;
+    private String userName;
+}
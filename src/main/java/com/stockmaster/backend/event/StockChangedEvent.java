@@ -0,0 +1,17 @@
+package com.stockmaster.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Se publica cada vez que cambia el stock_actual de una fila de INVENTARIO
+ * (movimientos, ajustes, transferencias, lotes y stock inicial de un producto).
+ */
+@Data
+@AllArgsConstructor
+public class StockChangedEvent {
+    private Long productId;
+    private Long warehouseId;
+    // Positivo para entradas, negativo para salidas
+    private int delta;
+}
@@ -0,0 +1,88 @@
+package com.stockmaster.backend.metrics;
+
+import com.stockmaster.backend.dto.MovementBatchResultDto;
+import com.stockmaster.backend.service.InsufficientStockException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Timers y contadores de las operaciones de InventoryMovementService.
+ *
+ * - stockmaster.movements{operation, outcome}: duración de cada operación, incluido el commit
+ *   (el aspecto envuelve al proxy transaccional por tener la máxima precedencia).
+ * - stockmaster.movements.failures{operation, reason}: fallos por motivo (stock insuficiente,
+ *   solicitud inválida, estado inválido u otro error); en los lotes, cada movimiento rechazado.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MovementMetricsAspect {
+
+    static final String TIMER = "stockmaster.movements";
+    static final String FAILURES = "stockmaster.movements.failures";
+
+    // Método del servicio -> nombre de la operación en las métricas
+    private static final Map<String, String> OPERATIONS = Map.of(
+            "registerEntry", "entry",
+            "registerExit", "exit",
+            "registerStockAdjustment", "adjustment",
+            "transferStock", "transfer",
+            "transferStockBatch", "transfer_batch",
+            "registerBatch", "batch",
+            "registerJournalGroup", "journal_group");
+
+    private final MeterRegistry meterRegistry;
+
+    public MovementMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.stockmaster.backend.service.InventoryMovementService.*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = OPERATIONS.get(joinPoint.getSignature().getName());
+        if (operation == null) {
+            return joinPoint.proceed();
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            Object result = joinPoint.proceed();
+            if (result instanceof MovementBatchResultDto batch && batch.getFailureCount() > 0) {
+                meterRegistry.counter(FAILURES, "operation", operation, "reason", "batch_item")
+                        .increment(batch.getFailureCount());
+                if (!batch.isCommitted()) {
+                    outcome = "failure";
+                }
+            }
+            return result;
+        } catch (Throwable e) {
+            outcome = "failure";
+            meterRegistry.counter(FAILURES, "operation", operation, "reason", reason(e)).increment();
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer(TIMER, "operation", operation, "outcome", outcome));
+        }
+    }
+
+    private static String reason(Throwable e) {
+        if (e instanceof InsufficientStockException) {
+            return "insufficient_stock";
+        }
+        if (e instanceof IllegalArgumentException) {
+            return "invalid_request";
+        }
+        if (e instanceof IllegalStateException) {
+            return "invalid_state";
+        }
+        return "error";
+    }
+}
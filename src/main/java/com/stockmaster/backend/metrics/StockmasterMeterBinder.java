@@ -0,0 +1,107 @@
+package com.stockmaster.backend.metrics;
+
+import com.stockmaster.backend.config.RequestConcurrencyLimitFilter;
+import com.stockmaster.backend.security.SecurityMetrics;
+import com.stockmaster.backend.security.SessionActivityTracker;
+import com.stockmaster.backend.security.TokenRevocationService;
+import com.stockmaster.backend.service.DashboardMetricsAggregate;
+import com.stockmaster.backend.service.MovementJournal;
+import com.stockmaster.backend.service.StockLedgerService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publica en Micrometer los contadores que ya llevan los componentes de seguridad y del Dashboard.
+ * Se leen al momento del scrape; los componentes no dependen de Micrometer.
+ */
+@Component
+public class StockmasterMeterBinder implements MeterBinder {
+
+    private final SecurityMetrics securityMetrics;
+    private final TokenRevocationService tokenRevocationService;
+    private final SessionActivityTracker sessionActivityTracker;
+    private final DashboardMetricsAggregate dashboardMetrics;
+    private final StockLedgerService stockLedger;
+    // Solo existe en el modo de hilos virtuales
+    private final ObjectProvider<RequestConcurrencyLimitFilter> concurrencyLimitFilter;
+    // Solo con movements.write-behind.enabled=true
+    private final ObjectProvider<MovementJournal> movementJournal;
+
+    public StockmasterMeterBinder(SecurityMetrics securityMetrics,
+                               TokenRevocationService tokenRevocationService,
+                               SessionActivityTracker sessionActivityTracker,
+                               DashboardMetricsAggregate dashboardMetrics,
+                               StockLedgerService stockLedger,
+                               ObjectProvider<RequestConcurrencyLimitFilter> concurrencyLimitFilter,
+                               ObjectProvider<MovementJournal> movementJournal) {
+        this.securityMetrics = securityMetrics;
+        this.tokenRevocationService = tokenRevocationService;
+        this.sessionActivityTracker = sessionActivityTracker;
+        this.dashboardMetrics = dashboardMetrics;
+        this.stockLedger = stockLedger;
+        this.concurrencyLimitFilter = concurrencyLimitFilter;
+        this.movementJournal = movementJournal;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("stockmaster.security.tokens", securityMetrics, SecurityMetrics::getValidatedTokens)
+                .tag("result", "validated").register(registry);
+        FunctionCounter.builder("stockmaster.security.tokens", securityMetrics, SecurityMetrics::getInvalidTokens)
+                .tag("result", "invalid").register(registry);
+        FunctionCounter.builder("stockmaster.security.tokens", securityMetrics, SecurityMetrics::getRevokedTokens)
+                .tag("result", "revoked").register(registry);
+        FunctionCounter.builder("stockmaster.security.tokens", securityMetrics, SecurityMetrics::getRenewedTokens)
+                .tag("result", "renewed").register(registry);
+
+        Gauge.builder("stockmaster.security.revoked.size", tokenRevocationService, TokenRevocationService::size)
+                .register(registry);
+        FunctionCounter.builder("stockmaster.security.revoked.evictions", tokenRevocationService,
+                TokenRevocationService::getEvictedCount).register(registry);
+
+        Gauge.builder("stockmaster.security.sessions.active", sessionActivityTracker, SessionActivityTracker::size)
+                .register(registry);
+        FunctionCounter.builder("stockmaster.security.sessions.expired", sessionActivityTracker,
+                SessionActivityTracker::getExpiredCount).register(registry);
+
+        FunctionCounter.builder("stockmaster.dashboard.drift", dashboardMetrics,
+                DashboardMetricsAggregate::getDriftCount).register(registry);
+
+        Gauge.builder("stockmaster.ledger.drift.pairs", stockLedger, StockLedgerService::getLastDriftCount)
+                .register(registry);
+        FunctionCounter.builder("stockmaster.ledger.drift", stockLedger, StockLedgerService::getDriftedPairsCount)
+                .register(registry);
+
+        concurrencyLimitFilter.ifAvailable(filter -> {
+            Gauge.builder("stockmaster.requests.limit", filter, RequestConcurrencyLimitFilter::getLimit)
+                    .register(registry);
+            Gauge.builder("stockmaster.requests.active", filter, RequestConcurrencyLimitFilter::getActiveCount)
+                    .register(registry);
+            Gauge.builder("stockmaster.requests.queued", filter, RequestConcurrencyLimitFilter::getQueuedCount)
+                    .register(registry);
+            FunctionCounter.builder("stockmaster.requests.rejected", filter,
+                    RequestConcurrencyLimitFilter::getRejectedCount).register(registry);
+        });
+
+        movementJournal.ifAvailable(journal -> {
+            Gauge.builder("stockmaster.journal.queue.size", journal, MovementJournal::getQueueSize)
+                    .register(registry);
+            Gauge.builder("stockmaster.journal.queue.capacity", journal, MovementJournal::getQueueCapacity)
+                    .register(registry);
+            FunctionCounter.builder("stockmaster.journal.rejected", journal, MovementJournal::getRejectedCount)
+                    .register(registry);
+            FunctionCounter.builder("stockmaster.journal.groups", journal, MovementJournal::getGroupCount)
+                    .register(registry);
+            FunctionCounter.builder("stockmaster.journal.movements", journal, MovementJournal::getCommittedCount)
+                    .register(registry);
+            FunctionCounter.builder("stockmaster.journal.fallbacks", journal, MovementJournal::getFallbackCount)
+                    .register(registry);
+            FunctionCounter.builder("stockmaster.journal.timeouts", journal, MovementJournal::getTimedOutCount)
+                    .register(registry);
+        });
+    }
+}
@@ -1,8 +1,12 @@
 package com.stockmaster.backend.repository;
 
+import com.stockmaster.backend.dto.CategoryListDto;
 import com.stockmaster.backend.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
@@ -10,14 +14,29 @@ import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
+    // Cacheable: ProductService.resolveCategory la usa al crear y actualizar productos
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Category> findByName(String name);
 
-    // Todas las categorías raíz (sin padre)
-    List<Category> findByParentCategoryIsNull();
-
     // Subcategorías de una categoría padre
     List<Category> findByParentCategory(Category parent);
 
+    // Listado completo en una sola consulta: categoría, padre y productos activos agrupados
+    String CATEGORY_LIST_PROJECTION =
+            "SELECT new com.stockmaster.backend.dto.CategoryListDto(c.id, c.name, parent.id, parent.name, COUNT(p.id)) " +
+            "FROM Category c " +
+            "LEFT JOIN c.parentCategory parent " +
+            "LEFT JOIN Product p ON p.category = c AND p.isActive = true ";
+
+    @Query(CATEGORY_LIST_PROJECTION +
+            "GROUP BY c.id, c.name, parent.id, parent.name ORDER BY c.id")
+    List<CategoryListDto> findCategoryList();
+
+    @Query(CATEGORY_LIST_PROJECTION +
+            "WHERE c.parentCategory IS NULL " +
+            "GROUP BY c.id, c.name, parent.id, parent.name ORDER BY c.id")
+    List<CategoryListDto> findRootCategoryList();
+
     // Cuántos productos activos usa esta categoría
     @Query("SELECT COUNT(p) FROM Product p WHERE p.category.id = :categoryId AND p.isActive = true")
     long countActiveProductsByCategoryId(@Param("categoryId") Long categoryId);
@@ -0,0 +1,59 @@
+package com.stockmaster.backend.repository;
+
+import com.stockmaster.backend.entity.DailySalesRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, Long> {
+
+    /** HU16: productos más vendidos en el rango, desde el acumulado diario.
+     * Devuelve id, nombre, unidades, ingresos y precio promedio; el Pageable limita al top N.
+     */
+    @Query("SELECT p.id, p.name, SUM(r.unitsSold), SUM(r.revenue), SUM(r.revenue) / SUM(r.unitsSold) " +
+            "FROM DailySalesRollup r JOIN r.product p " +
+            "WHERE r.day BETWEEN :startDate AND :endDate " +
+            "GROUP BY p.id, p.name " +
+            "ORDER BY SUM(r.unitsSold) DESC, p.id")
+    List<Object[]> findMostSoldProducts(@Param("startDate") LocalDate startDate,
+                                        @Param("endDate") LocalDate endDate,
+                                        Pageable pageable);
+
+    /**
+     * Completa el rango a partir de MOVIMIENTO_INVENTARIO: solo inserta los (día, producto, almacén) que no
+     * tienen fila. El histórico no guarda el precio de cada venta: los ingresos reconstruidos usan el precio
+     * actual del producto. Para recalcular días cerrados se borran antes con deleteRange.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value =
+            "INSERT INTO venta_diaria (fecha, id_producto, id_almacen, unidades_vendidas, ingresos) " +
+            "SELECT CAST(m.fecha_movimiento AS DATE), m.id_producto, m.id_almacen, SUM(m.cantidad), SUM(m.cantidad * p.precio) " +
+            "FROM movimiento_inventario m JOIN producto p ON p.id_producto = m.id_producto " +
+            "WHERE m.tipo_movimiento = 'SALIDA' AND m.referencia_transferencia IS NULL " +
+            "AND m.fecha_movimiento >= :startDate AND m.fecha_movimiento < :endDateExclusive " +
+            "GROUP BY CAST(m.fecha_movimiento AS DATE), m.id_producto, m.id_almacen " +
+            "ON CONFLICT (fecha, id_producto, id_almacen) DO NOTHING")
+    int backfill(@Param("startDate") LocalDateTime startDate, @Param("endDateExclusive") LocalDateTime endDateExclusive);
+
+    // Días cerrados que se van a recalcular enteros
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM venta_diaria WHERE fecha BETWEEN :startDate AND :endDate")
+    int deleteRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // Filas del rango sin ninguna venta que las respalde en MOVIMIENTO_INVENTARIO (idx_movimiento_producto_almacen_fecha)
+    @Modifying
+    @Query(nativeQuery = true, value =
+            "DELETE FROM venta_diaria v " +
+            "WHERE v.fecha BETWEEN :startDate AND :endDate " +
+            "AND NOT EXISTS (SELECT 1 FROM movimiento_inventario m " +
+            "                WHERE m.id_producto = v.id_producto AND m.id_almacen = v.id_almacen " +
+            "                AND m.tipo_movimiento = 'SALIDA' AND m.referencia_transferencia IS NULL " +
+            "                AND m.fecha_movimiento >= v.fecha AND m.fecha_movimiento < v.fecha + 1)")
+    int deleteStale(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
@@ -1,31 +1,55 @@
 package com.stockmaster.backend.repository;
 
+import com.stockmaster.backend.dto.MovementDto;
+import com.stockmaster.backend.dto.MovementReportDto;
 import com.stockmaster.backend.entity.InventoryMovement;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long>, InventoryMovementRepositoryCustom {
     // HU15: Reporte de movimientos por rango de fechas
-    List<InventoryMovement> findByMovementDateBetweenOrderByMovementDateAsc(LocalDateTime startDate, LocalDateTime endDate);
+    String MOVEMENT_REPORT_PROJECTION =
+            "SELECT new com.stockmaster.backend.dto.MovementReportDto(" +
+            "m.movementDate, p.name, m.movementType, m.quantity, w.name, u.name) " +
+            "FROM InventoryMovement m JOIN m.product p JOIN m.warehouse w JOIN m.user u " +
+            "WHERE m.movementDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY m.movementDate ASC, m.id ASC";
 
+    // HU15: reporte por fechas proyectado directamente al DTO (sin cargas perezosas por fila)
+    @Query(MOVEMENT_REPORT_PROJECTION)
+    List<MovementReportDto> findMovementReport(@Param("startDate") LocalDateTime startDate,
+                                               @Param("endDate") LocalDateTime endDate);
 
-    /** HU16: Reporte de productos más vendidos. Suma la cantidad total de SALIDAS.
-     * Calcula ingresos usando el precio actual del producto.
-     */
-    @Query("SELECT p.id, p.name, SUM(m.quantity), SUM(m.quantity * p.price), " +
+    // HU15: misma proyección recorrida con cursor de solo avance para exportaciones (CSV/NDJSON)
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(MOVEMENT_REPORT_PROJECTION)
+    Stream<MovementReportDto> streamMovementReport(@Param("startDate") LocalDateTime startDate,
+                                                   @Param("endDate") LocalDateTime endDate);
 
-            "SUM(m.quantity * p.price) / SUM(m.quantity) " +
-            "FROM InventoryMovement m JOIN m.product p " +
-            "WHERE m.movementType = 'SALIDA' " +
-            "GROUP BY p.id, p.name, p.price " +
-            "ORDER BY SUM(m.quantity) DESC")
-    List<Object[]> findMostSoldProductsWithRevenueAndAveragePrice();
 
     long countByMovementDateBetween(LocalDateTime startDate, LocalDateTime endDate);
     List<InventoryMovement> findByOrderByMovementDateDesc(org.springframework.data.domain.Pageable pageable);
+
+    // Historial completo (GET /api/movements) recorrido con cursor de solo avance, en orden de registro
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(MOVEMENT_DTO_PROJECTION + " ORDER BY m.movementDate ASC, m.id ASC")
+    Stream<MovementDto> streamAllAsDto();
 }
@@ -0,0 +1,24 @@
+package com.stockmaster.backend.repository;
+
+import com.stockmaster.backend.dto.MovementDto;
+import com.stockmaster.backend.dto.MovementFilterDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface InventoryMovementRepositoryCustom {
+
+    // Proyección única: producto, almacén y usuario en el mismo SELECT, sin cargas perezosas por fila
+    String MOVEMENT_DTO_PROJECTION =
+            "SELECT new com.stockmaster.backend.dto.MovementDto(" +
+            "p.id, w.id, m.quantity, u.id, m.id, m.movementType, m.motive, m.transferReference, " +
+            "m.movementDate, p.name, w.name, u.name) " +
+            "FROM InventoryMovement m JOIN m.product p JOIN m.warehouse w JOIN m.user u";
+
+    /**
+     * Página del historial ordenada por (fecha_movimiento, id_movimiento) descendente.
+     * Con cursor nulo devuelve la primera página; si no, los movimientos estrictamente
+     * anteriores al cursor. El coste no depende de la profundidad de la página.
+     */
+    List<MovementDto> findHistoryPage(MovementFilterDto filter, LocalDateTime cursorDate, Long cursorId, int limit);
+}
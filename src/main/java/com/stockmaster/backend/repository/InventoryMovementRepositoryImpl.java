@@ -0,0 +1,62 @@
+package com.stockmaster.backend.repository;
+
+import com.stockmaster.backend.dto.MovementDto;
+import com.stockmaster.backend.dto.MovementFilterDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class InventoryMovementRepositoryImpl implements InventoryMovementRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<MovementDto> findHistoryPage(MovementFilterDto filter, LocalDateTime cursorDate, Long cursorId, int limit) {
+        // Solo se agregan los filtros presentes, así el planificador ve predicados simples indexables
+        StringBuilder jpql = new StringBuilder(MOVEMENT_DTO_PROJECTION).append(" WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+
+        if (filter.getProductId() != null) {
+            jpql.append(" AND m.product.id = :productId");
+            params.put("productId", filter.getProductId());
+        }
+        if (filter.getWarehouseId() != null) {
+            jpql.append(" AND m.warehouse.id = :warehouseId");
+            params.put("warehouseId", filter.getWarehouseId());
+        }
+        if (filter.getUserId() != null) {
+            jpql.append(" AND m.user.id = :userId");
+            params.put("userId", filter.getUserId());
+        }
+        if (filter.getMovementType() != null && !filter.getMovementType().isBlank()) {
+            jpql.append(" AND m.movementType = :movementType");
+            params.put("movementType", filter.getMovementType());
+        }
+        if (filter.getFrom() != null) {
+            jpql.append(" AND m.movementDate >= :from");
+            params.put("from", filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            jpql.append(" AND m.movementDate <= :to");
+            params.put("to", filter.getTo());
+        }
+        if (cursorDate != null && cursorId != null) {
+            // El primer término acota el rango del índice; el segundo desempata por id en la misma fecha
+            jpql.append(" AND m.movementDate <= :cursorDate")
+                .append(" AND (m.movementDate < :cursorDate OR m.id < :cursorId)");
+            params.put("cursorDate", cursorDate);
+            params.put("cursorId", cursorId);
+        }
+        jpql.append(" ORDER BY m.movementDate DESC, m.id DESC");
+
+        TypedQuery<MovementDto> query = entityManager.createQuery(jpql.toString(), MovementDto.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
@@ -1,14 +1,29 @@
 package com.stockmaster.backend.repository;
 
+import com.stockmaster.backend.dto.LowStockProductDto;
+import com.stockmaster.backend.dto.ProductStockDto;
+import com.stockmaster.backend.dto.StockReportDto;
 import com.stockmaster.backend.entity.Inventory;
 import com.stockmaster.backend.entity.Product;
 import com.stockmaster.backend.entity.Warehouse;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     Optional<Inventory> findByProductAndWarehouse(Product product, Warehouse warehouse);
@@ -16,11 +31,59 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     List<Inventory> findByWarehouseAndCurrentStockGreaterThan(Warehouse warehouse, int currentStock);
     long countByWarehouseAndCurrentStockGreaterThan(Warehouse warehouse, int currentStock);
 
-    @Query("SELECT i FROM Inventory i WHERE i.currentStock < i.minStock")
-    List<Inventory> findItemsWithLowStock();
+    // Alertas del Dashboard: solo las filas del índice parcial idx_inventario_bajo_stock, con producto y almacén en el mismo SELECT
+    @Query("SELECT new com.stockmaster.backend.dto.LowStockProductDto(p.id, p.name, w.name, i.currentStock, i.minStock) " +
+            "FROM Inventory i JOIN i.product p JOIN i.warehouse w " +
+            "WHERE i.lowStock = true")
+    List<LowStockProductDto> findLowStockAlerts();
+
+    // HU14: reporte de stock bajo, misma estrategia que las alertas
+    @Query("SELECT new com.stockmaster.backend.dto.StockReportDto(p.id, p.name, w.name, i.currentStock, i.minStock) " +
+            "FROM Inventory i JOIN i.product p JOIN i.warehouse w " +
+            "WHERE i.lowStock = true")
+    List<StockReportDto> findLowStockReport();
 
     @Query("SELECT SUM(i.currentStock) FROM Inventory i")
     Long calculateTotalStock();
 
     List<Inventory> findByProductId(Long productId);
+
+    // HU10: tuplas (almacén, producto, stock) de todos los almacenes activos en una sola consulta.
+    // Se recorre como Stream con fetch size para no materializar todo el resultado de una vez.
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT w.id, p.id, p.name, i.currentStock, i.minStock " +
+            "FROM Inventory i JOIN i.warehouse w JOIN i.product p " +
+            "WHERE w.isActive = true AND i.currentStock > 0 " +
+            "ORDER BY w.id")
+    Stream<Object[]> streamActiveWarehouseProductStock();
+
+    // HU10: productos con stock de un almacén, paginado
+    @Query(value = "SELECT new com.stockmaster.backend.dto.ProductStockDto(p.id, p.name, i.currentStock, i.minStock) " +
+            "FROM Inventory i JOIN i.product p " +
+            "WHERE i.warehouse.id = :warehouseId AND i.currentStock > 0 " +
+            "ORDER BY p.name, p.id",
+            countQuery = "SELECT COUNT(i) FROM Inventory i WHERE i.warehouse.id = :warehouseId AND i.currentStock > 0")
+    Page<ProductStockDto> findProductStockByWarehouseId(@Param("warehouseId") Long warehouseId, Pageable pageable);
+
+    // Carga masiva para el registro por lotes y las transferencias: un solo SELECT ... FOR UPDATE para todas las combinaciones.
+    // Se ordena por id para que las transacciones concurrentes bloqueen las filas siempre en el mismo orden.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.product.id IN :productIds AND i.warehouse.id IN :warehouseIds ORDER BY i.id")
+    List<Inventory> lockByProductIdsAndWarehouseIds(@Param("productIds") Collection<Long> productIds,
+                                                    @Param("warehouseIds") Collection<Long> warehouseIds);
+
+    // Actualizaciones atómicas de stock: la base de datos aplica el delta sobre el valor vigente,
+    // así dos movimientos concurrentes sobre la misma fila no se pisan.
+    @Modifying
+    @Query("UPDATE Inventory i SET i.currentStock = i.currentStock + :quantity WHERE i.id = :id")
+    int increaseStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Devuelve 0 si no hay stock suficiente; en ese caso no se modifica la fila
+    @Modifying
+    @Query("UPDATE Inventory i SET i.currentStock = i.currentStock - :quantity " +
+            "WHERE i.id = :id AND i.currentStock >= :quantity")
+    int decreaseStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Query("SELECT i.currentStock FROM Inventory i WHERE i.id = :id")
+    int findCurrentStockById(@Param("id") Long id);
 }
@@ -1,9 +1,13 @@
 package com.stockmaster.backend.repository;
 
 import com.stockmaster.backend.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +21,21 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             "GROUP BY p.id, p.name, p.description, p.price, p.sku, c.name, p.category.id")
     List<Object[]> findAllProductsWithTotalStock();
 
+    // Misma consulta, paginada y ordenable (por atributos de Product: id, name, sku, price)
+    @Query(value = "SELECT p.id, p.name, p.description, p.price, p.sku, p.category.name, SUM(i.currentStock), p.category.id " +
+            "FROM Product p JOIN p.category c LEFT JOIN Inventory i ON p.id = i.product.id " +
+            "WHERE p.isActive = true " +
+            "GROUP BY p.id, p.name, p.description, p.price, p.sku, c.name, p.category.id",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isActive = true")
+    Page<Object[]> findAllProductsWithTotalStock(Pageable pageable);
+
+    // HU-PI2-01: pares (id_producto, proveedor) de PRODUCTO_PROVEEDOR en una sola consulta
+    @Query("SELECT p.id, s FROM Product p JOIN p.suppliers s WHERE p.isActive = true")
+    List<Object[]> findSupplierPairsOfActiveProducts();
+
+    @Query("SELECT p.id, s FROM Product p JOIN p.suppliers s WHERE p.id IN :productIds")
+    List<Object[]> findSupplierPairsByProductIds(@Param("productIds") Collection<Long> productIds);
+
     @Query("SELECT p.id, p.name, p.description, p.price, p.sku, c.name, SUM(i.currentStock), p.deletedAt " + // <-- 8vo campo añadido
             "FROM Product p " +
             "LEFT JOIN p.category c " +
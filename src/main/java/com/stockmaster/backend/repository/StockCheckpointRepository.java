@@ -0,0 +1,18 @@
+package com.stockmaster.backend.repository;
+
+import com.stockmaster.backend.entity.StockCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface StockCheckpointRepository extends JpaRepository<StockCheckpoint, Long> {
+
+    Optional<StockCheckpoint> findTopByOrderByCutoffDesc();
+
+    // Corte desde el que se reconstruye el stock en una fecha: el último que no la supera
+    Optional<StockCheckpoint> findTopByCutoffLessThanEqualOrderByCutoffDesc(LocalDateTime at);
+
+    // Corte completo en el que empieza la resolución de los pares de un corte incremental
+    Optional<StockCheckpoint> findTopByFullTrueAndCutoffLessThanEqualOrderByCutoffDesc(LocalDateTime at);
+}
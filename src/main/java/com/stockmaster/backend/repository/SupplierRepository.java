@@ -1,5 +1,6 @@
 package com.stockmaster.backend.repository;
 
+import com.stockmaster.backend.dto.SupplierListDto;
 import com.stockmaster.backend.entity.Supplier;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -10,15 +11,28 @@ import java.util.Optional;
 
 public interface SupplierRepository extends JpaRepository<Supplier, Long> {
 
-    // Solo proveedores activos para el listado principal
-    List<Supplier> findByIsActiveTrue();
-
     // Verificar nombre único
     Optional<Supplier> findByName(String name);
 
     // Verificar NIT único (ignorando nulos)
     Optional<Supplier> findByNit(String nit);
 
+    // Listados en una sola consulta: los productos activos se cuentan agrupados por proveedor
+    // en una subconsulta y se unen a cada fila (0 si no tiene ninguno)
+    String SUPPLIER_LIST_PROJECTION =
+            "SELECT new com.stockmaster.backend.dto.SupplierListDto(s.id, s.name, s.nit, s.phone, s.email, s.address, " +
+            "       s.isActive, COALESCE(pc.productCount, 0L)) " +
+            "FROM Supplier s " +
+            "LEFT JOIN (SELECT ps.id AS supplierId, COUNT(p.id) AS productCount " +
+            "           FROM Product p JOIN p.suppliers ps WHERE p.isActive = true GROUP BY ps.id) pc " +
+            "  ON pc.supplierId = s.id ";
+
+    @Query(SUPPLIER_LIST_PROJECTION + "ORDER BY s.id")
+    List<SupplierListDto> findSupplierList();
+
+    @Query(SUPPLIER_LIST_PROJECTION + "WHERE s.isActive = :active ORDER BY s.id")
+    List<SupplierListDto> findSupplierListByActive(@Param("active") boolean active);
+
     // Cuántos productos activos tiene este proveedor asociados
     @Query("SELECT COUNT(p) FROM Product p JOIN p.suppliers s WHERE s.id = :supplierId AND p.isActive = true")
     long countActiveProductsBySupplierId(@Param("supplierId") Long supplierId);
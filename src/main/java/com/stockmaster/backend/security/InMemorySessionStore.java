@@ -0,0 +1,126 @@
+package com.stockmaster.backend.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * SessionStore en memoria del proceso. Es la opción por defecto y la adecuada para un solo nodo.
+ * Registrar actividad no crea objetos: cada sesión guarda su último acceso en un campo mutable.
+ */
+@Component
+@ConditionalOnProperty(name = "session.store", havingValue = "memory", matchIfMissing = true)
+public class InMemorySessionStore implements SessionStore {
+
+    // CLAVE: id del token | VALOR: expiración del token (epoch ms)
+    private final ConcurrentHashMap<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    // Mismas entradas ordenadas por expiración: el barrido solo mira la cabeza de la cola
+    private final PriorityBlockingQueue<Expiry> expiryQueue = new PriorityBlockingQueue<>();
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+
+    private record Expiry(String tokenId, long expiresAtMs) implements Comparable<Expiry> {
+        @Override
+        public int compareTo(Expiry other) {
+            return Long.compare(expiresAtMs, other.expiresAtMs);
+        }
+    }
+
+    private static final class Session {
+        final long tokenExpiresAtMs;
+        volatile long lastAccessMs;
+
+        Session(long tokenExpiresAtMs, long lastAccessMs) {
+            this.tokenExpiresAtMs = tokenExpiresAtMs;
+            this.lastAccessMs = lastAccessMs;
+        }
+    }
+
+    // ── Lista negra ──────────────────────────────────────────────────────────
+
+    @Override
+    public void revoke(String tokenId, long tokenExpiresAtMs) {
+        if (revokedTokens.put(tokenId, tokenExpiresAtMs) == null) {
+            expiryQueue.add(new Expiry(tokenId, tokenExpiresAtMs));
+        }
+    }
+
+    @Override
+    public boolean isRevoked(String tokenId, long now) {
+        Long expiresAtMs = revokedTokens.get(tokenId);
+        return expiresAtMs != null && expiresAtMs > now;
+    }
+
+    @Override
+    public void unrevoke(String tokenId) {
+        revokedTokens.remove(tokenId);
+    }
+
+    @Override
+    public int evictExpiredRevocations(long now) {
+        int evicted = 0;
+        Expiry head;
+        while ((head = expiryQueue.peek()) != null && head.expiresAtMs() <= now) {
+            expiryQueue.poll();
+            // Solo se borra si la entrada sigue siendo la misma (no fue retirada ni re-revocada)
+            if (revokedTokens.remove(head.tokenId(), head.expiresAtMs())) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    @Override
+    public int revokedCount() {
+        return revokedTokens.size();
+    }
+
+    // ── Actividad de sesiones ────────────────────────────────────────────────
+
+    @Override
+    public long touch(String tokenId, long now) {
+        Session session = sessions.get(tokenId);
+        if (session == null) {
+            return NOT_TRACKED;
+        }
+        long previous = session.lastAccessMs;
+        session.lastAccessMs = now;
+        return previous;
+    }
+
+    @Override
+    public void startSession(String tokenId, long tokenExpiresAtMs, long now) {
+        sessions.putIfAbsent(tokenId, new Session(tokenExpiresAtMs, now));
+    }
+
+    @Override
+    public long endSession(String tokenId) {
+        Session session = sessions.remove(tokenId);
+        return session != null ? session.tokenExpiresAtMs : NOT_TRACKED;
+    }
+
+    @Override
+    public int expireIdleSessions(long idleBeforeMs, long now) {
+        int closed = 0;
+        for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+            Session session = entry.getValue();
+            boolean tokenExpired = session.tokenExpiresAtMs <= now;
+            if ((tokenExpired || session.lastAccessMs <= idleBeforeMs)
+                    && sessions.remove(entry.getKey(), session)
+                    && !tokenExpired) {
+                revoke(entry.getKey(), session.tokenExpiresAtMs);
+                closed++;
+            }
+        }
+        return closed;
+    }
+
+    @Override
+    public int sessionCount() {
+        return sessions.size();
+    }
+}
@@ -0,0 +1,244 @@
+package com.stockmaster.backend.security;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SessionStore compartido entre nodos sobre PostgreSQL (session.store=jdbc).
+ *
+ * - Revocaciones: se escriben de inmediato; las consultas pasan por una caché local
+ *   (las positivas hasta la expiración del token, las negativas durante cache-ttl-ms).
+ * - Actividad: cada petición solo actualiza la copia local de la sesión; los últimos accesos
+ *   se vuelcan en lote cada flush-interval-ms. Cuando la copia local indica inactividad se
+ *   relee la fila, para no cerrar una sesión que sigue activa en otro nodo.
+ * - Conteos (métricas): se recalculan en cada barrido y sessionCount/revokedCount devuelven el último
+ *   valor, así una lectura de /actuator/prometheus no lanza COUNT(*) sobre las tablas.
+ *
+ * Las tablas SESION_REVOCADA y SESION_ACTIVIDAD las crea la migración V1.
+ */
+@Component
+@ConditionalOnProperty(name = "session.store", havingValue = "jdbc")
+public class JdbcSessionStore implements SessionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcSessionStore.class);
+
+    // Tope de entradas en las cachés locales; al superarse se vacían y se vuelven a poblar desde la BD
+    static final int MAX_LOCAL_ENTRIES = 50_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long inactivityMs;
+    private final long cacheTtlMs;
+
+    private final ConcurrentHashMap<String, CachedRevocation> revocationCache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LocalSession> sessions = new ConcurrentHashMap<>();
+
+    private volatile int sessionCount;
+    private volatile int revokedCount;
+
+    // expiresAtMs = 0 significa "no revocado" (consultado en checkedAtMs)
+    private record CachedRevocation(long expiresAtMs, long checkedAtMs) {
+    }
+
+    private static final class LocalSession {
+        final long tokenExpiresAtMs;
+        volatile long lastAccessMs;
+        volatile boolean dirty;
+
+        LocalSession(long tokenExpiresAtMs, long lastAccessMs) {
+            this.tokenExpiresAtMs = tokenExpiresAtMs;
+            this.lastAccessMs = lastAccessMs;
+        }
+    }
+
+    public JdbcSessionStore(JdbcTemplate jdbcTemplate,
+                            @Value("${session.inactivity.minutes:2}") long inactivityMinutes,
+                            @Value("${session.store.jdbc.cache-ttl-ms:5000}") long cacheTtlMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.inactivityMs = inactivityMinutes * 60_000L;
+        this.cacheTtlMs = cacheTtlMs;
+    }
+
+    // ── Lista negra ──────────────────────────────────────────────────────────
+
+    @Override
+    public void revoke(String tokenId, long tokenExpiresAtMs) {
+        jdbcTemplate.update("INSERT INTO sesion_revocada (id_token, expira_en) VALUES (?, ?) " +
+                "ON CONFLICT (id_token) DO UPDATE SET expira_en = EXCLUDED.expira_en", tokenId, tokenExpiresAtMs);
+        cacheRevocation(tokenId, new CachedRevocation(tokenExpiresAtMs, System.currentTimeMillis()));
+    }
+
+    @Override
+    public boolean isRevoked(String tokenId, long now) {
+        CachedRevocation cached = revocationCache.get(tokenId);
+        if (cached == null || (cached.expiresAtMs() == 0 && now - cached.checkedAtMs() >= cacheTtlMs)) {
+            List<Long> rows = jdbcTemplate.queryForList(
+                    "SELECT expira_en FROM sesion_revocada WHERE id_token = ?", Long.class, tokenId);
+            cached = new CachedRevocation(rows.isEmpty() ? 0 : rows.get(0), now);
+            cacheRevocation(tokenId, cached);
+        }
+        return cached.expiresAtMs() > now;
+    }
+
+    @Override
+    public void unrevoke(String tokenId) {
+        jdbcTemplate.update("DELETE FROM sesion_revocada WHERE id_token = ?", tokenId);
+        revocationCache.remove(tokenId);
+    }
+
+    @Override
+    public int evictExpiredRevocations(long now) {
+        revocationCache.values().removeIf(c -> c.expiresAtMs() != 0 && c.expiresAtMs() <= now);
+        int evicted = jdbcTemplate.update("DELETE FROM sesion_revocada WHERE expira_en <= ?", now);
+        refreshCounts();
+        return evicted;
+    }
+
+    // Valor del último barrido (ver refreshCounts)
+    @Override
+    public int revokedCount() {
+        return revokedCount;
+    }
+
+    private void cacheRevocation(String tokenId, CachedRevocation entry) {
+        if (revocationCache.size() >= MAX_LOCAL_ENTRIES) {
+            revocationCache.clear();
+        }
+        revocationCache.put(tokenId, entry);
+    }
+
+    // ── Actividad de sesiones ────────────────────────────────────────────────
+
+    @Override
+    public long touch(String tokenId, long now) {
+        LocalSession session = sessions.get(tokenId);
+        if (session == null) {
+            session = loadSession(tokenId);
+            if (session == null) {
+                return NOT_TRACKED;
+            }
+        }
+        long previous = session.lastAccessMs;
+        if (now - previous >= inactivityMs) {
+            // Antes de declararla inactiva se mira si otro nodo registró actividad más reciente
+            LocalSession fresh = loadSession(tokenId);
+            if (fresh == null) {
+                // Otro nodo ya la cerró: se informa el acceso anterior para que se trate como inactiva
+                return previous;
+            }
+            session = fresh;
+            previous = Math.max(previous, fresh.lastAccessMs);
+        }
+        session.lastAccessMs = now;
+        session.dirty = true;
+        return previous;
+    }
+
+    @Override
+    public void startSession(String tokenId, long tokenExpiresAtMs, long now) {
+        jdbcTemplate.update("INSERT INTO sesion_actividad (id_token, ultimo_acceso, expira_en) VALUES (?, ?, ?) " +
+                "ON CONFLICT (id_token) DO NOTHING", tokenId, now, tokenExpiresAtMs);
+        cacheSession(tokenId, new LocalSession(tokenExpiresAtMs, now));
+    }
+
+    @Override
+    public long endSession(String tokenId) {
+        LocalSession local = sessions.remove(tokenId);
+        List<Long> rows = jdbcTemplate.queryForList(
+                "DELETE FROM sesion_actividad WHERE id_token = ? RETURNING expira_en", Long.class, tokenId);
+        if (!rows.isEmpty()) {
+            return rows.get(0);
+        }
+        return local != null ? local.tokenExpiresAtMs : NOT_TRACKED;
+    }
+
+    @Override
+    public int expireIdleSessions(long idleBeforeMs, long now) {
+        flushActivity();
+        sessions.values().removeIf(s -> s.tokenExpiresAtMs <= now || s.lastAccessMs <= idleBeforeMs);
+        // Borrado y revocación en una sola sentencia: si varios nodos barren a la vez, cada fila se cierra una vez
+        int closed = jdbcTemplate.update(
+                "WITH cerradas AS (" +
+                "  DELETE FROM sesion_actividad WHERE ultimo_acceso <= ? OR expira_en <= ? " +
+                "  RETURNING id_token, expira_en) " +
+                "INSERT INTO sesion_revocada (id_token, expira_en) " +
+                "SELECT id_token, expira_en FROM cerradas WHERE expira_en > ? " +
+                "ON CONFLICT (id_token) DO NOTHING",
+                idleBeforeMs, now, now);
+        refreshCounts();
+        return closed;
+    }
+
+    // Valor del último barrido (ver refreshCounts)
+    @Override
+    public int sessionCount() {
+        return sessionCount;
+    }
+
+    // Ambos barridos cambian las dos tablas (el de inactividad revoca lo que cierra); se cuentan juntas
+    private void refreshCounts() {
+        jdbcTemplate.query("SELECT (SELECT COUNT(*) FROM sesion_actividad), (SELECT COUNT(*) FROM sesion_revocada)",
+                rs -> {
+                    sessionCount = rs.getInt(1);
+                    revokedCount = rs.getInt(2);
+                });
+    }
+
+    // Vuelca en lote los últimos accesos pendientes (write-behind)
+    @Scheduled(fixedDelayString = "${session.store.jdbc.flush-interval-ms:1000}")
+    @PreDestroy
+    public void flushActivity() {
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<String, LocalSession> entry : sessions.entrySet()) {
+            LocalSession session = entry.getValue();
+            if (session.dirty) {
+                session.dirty = false;
+                batch.add(new Object[]{session.lastAccessMs, entry.getKey()});
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("UPDATE sesion_actividad SET ultimo_acceso = GREATEST(ultimo_acceso, ?) " +
+                "WHERE id_token = ?", batch);
+        logger.debug("Actividad de sesiones volcada: {} sesiones", batch.size());
+    }
+
+    private LocalSession loadSession(String tokenId) {
+        List<LocalSession> rows = jdbcTemplate.query(
+                "SELECT ultimo_acceso, expira_en FROM sesion_actividad WHERE id_token = ?",
+                (rs, rowNum) -> new LocalSession(rs.getLong("expira_en"), rs.getLong("ultimo_acceso")),
+                tokenId);
+        if (rows.isEmpty()) {
+            sessions.remove(tokenId);
+            return null;
+        }
+        LocalSession loaded = rows.get(0);
+        LocalSession local = sessions.get(tokenId);
+        if (local != null) {
+            // Se conserva la copia local (y sus cambios pendientes) con el acceso más reciente de ambos
+            local.lastAccessMs = Math.max(local.lastAccessMs, loaded.lastAccessMs);
+            return local;
+        }
+        cacheSession(tokenId, loaded);
+        return loaded;
+    }
+
+    private void cacheSession(String tokenId, LocalSession session) {
+        if (sessions.size() >= MAX_LOCAL_ENTRIES) {
+            flushActivity();
+            sessions.clear();
+        }
+        sessions.put(tokenId, session);
+    }
+}
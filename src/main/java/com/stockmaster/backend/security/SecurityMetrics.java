@@ -0,0 +1,50 @@
+package com.stockmaster.backend.security;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de la cadena de filtros de seguridad: tokens válidos, inválidos, rechazados por
+ * revocación y renovados. LongAdder evita contención entre hilos en el camino de cada petición.
+ */
+@Component
+public class SecurityMetrics {
+
+    private final LongAdder validatedTokens = new LongAdder();
+    private final LongAdder invalidTokens = new LongAdder();
+    private final LongAdder revokedTokens = new LongAdder();
+    private final LongAdder renewedTokens = new LongAdder();
+
+    public void tokenValidated() {
+        validatedTokens.increment();
+    }
+
+    public void tokenInvalid() {
+        invalidTokens.increment();
+    }
+
+    public void tokenRevoked() {
+        revokedTokens.increment();
+    }
+
+    public void tokenRenewed() {
+        renewedTokens.increment();
+    }
+
+    public long getValidatedTokens() {
+        return validatedTokens.sum();
+    }
+
+    public long getInvalidTokens() {
+        return invalidTokens.sum();
+    }
+
+    public long getRevokedTokens() {
+        return revokedTokens.sum();
+    }
+
+    public long getRenewedTokens() {
+        return renewedTokens.sum();
+    }
+}
@@ -0,0 +1,83 @@
+package com.stockmaster.backend.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registro de la última actividad de cada sesión (clave: id compacto del token, ver JwtUtil.tokenId).
+ * Los tiempos son epoch ms y el estado vive en el SessionStore; con el almacén en memoria, registrar
+ * actividad en cada petición no crea objetos. Un barrido periódico cierra las sesiones abandonadas
+ * sin esperar a que el usuario vuelva: revoca el token si aún no expiró y libera la entrada.
+ */
+@Component
+public class SessionActivityTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionActivityTracker.class);
+
+    /** Valor devuelto por touch cuando la sesión no estaba registrada. */
+    public static final long NOT_TRACKED = SessionStore.NOT_TRACKED;
+
+    private final SessionStore sessionStore;
+    private final long inactivityMs;
+
+    private final AtomicLong expiredCount = new AtomicLong();
+
+    // Tiempo de inactividad, debe coincidir con el tiempo del frontend
+    public SessionActivityTracker(SessionStore sessionStore,
+                                  @Value("${session.inactivity.minutes:2}") long inactivityMinutes) {
+        this.sessionStore = sessionStore;
+        this.inactivityMs = inactivityMinutes * 60_000L;
+    }
+
+    /**
+     * Marca actividad de una sesión ya registrada.
+     * @return la marca anterior (epoch ms) o NOT_TRACKED si la sesión no existía.
+     */
+    public long touch(String tokenId, long now) {
+        return sessionStore.touch(tokenId, now);
+    }
+
+    // Primera petición con este token
+    public void start(String tokenId, long tokenExpiresAtMs, long now) {
+        sessionStore.startSession(tokenId, tokenExpiresAtMs, now);
+    }
+
+    public boolean isIdle(long lastAccessMs, long now) {
+        return now - lastAccessMs >= inactivityMs;
+    }
+
+    // Cierra la sesión por inactividad: deja el token en la lista negra hasta su expiración
+    public void expire(String tokenId) {
+        long tokenExpiresAtMs = sessionStore.endSession(tokenId);
+        if (tokenExpiresAtMs != NOT_TRACKED) {
+            expiredCount.incrementAndGet();
+            if (tokenExpiresAtMs > System.currentTimeMillis()) {
+                sessionStore.revoke(tokenId, tokenExpiresAtMs);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${session.inactivity.sweep-interval-ms:30000}")
+    public void sweepIdleSessions() {
+        long now = System.currentTimeMillis();
+        int expired = sessionStore.expireIdleSessions(now - inactivityMs, now);
+        if (expired > 0) {
+            expiredCount.addAndGet(expired);
+            logger.debug("Sesiones inactivas cerradas: {}", expired);
+        }
+    }
+
+    // ── Métricas ─────────────────────────────────────────────────────────────
+    public int size() {
+        return sessionStore.sessionCount();
+    }
+
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+}
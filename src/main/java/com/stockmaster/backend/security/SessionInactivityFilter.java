@@ -1,19 +1,16 @@
 package com.stockmaster.backend.security;
 
 import com.stockmaster.backend.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.time.Duration;
-import java.time.LocalDateTime;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Filtro de Inactividad de Sesión. Marca el token como revocado si no hay actividad
@@ -25,20 +22,18 @@ public class SessionInactivityFilter extends OncePerRequestFilter {
     private final TokenRevocationService tokenRevocationService;
     private final JwtUtil jwtUtil; // Inyectamos JwtUtil para extraer el token
 
-    // Mapa para rastrear el último acceso (clave: token, valor: timestamp)
-    private final ConcurrentHashMap<String, LocalDateTime> lastAccessMap = new ConcurrentHashMap<>();
-
-    // Tiempo de inactividad, debe coincidir con el tiempo del frontend (110 segundos = 1.83 minutos)
-    @Value("${session.inactivity.minutes:2}") // Usamos 2 minutos por defecto si no está en application.properties
-    private long inactivityMinutes;
+    // Último acceso por sesión (epoch ms); el barrido de sesiones abandonadas vive en el tracker
+    private final SessionActivityTracker activityTracker;
 
     // Ruta de autenticación para excluir
     private static final String AUTH_PATH = "/api/auth/login";
     // La ruta de refresh (si existiera) también debe excluirse, pero la eliminamos.
 
-    public SessionInactivityFilter(TokenRevocationService tokenRevocationService, JwtUtil jwtUtil) {
+    public SessionInactivityFilter(TokenRevocationService tokenRevocationService, JwtUtil jwtUtil,
+                                   SessionActivityTracker activityTracker) {
         this.tokenRevocationService = tokenRevocationService;
         this.jwtUtil = jwtUtil;
+        this.activityTracker = activityTracker;
     }
 
     @Override
@@ -54,37 +49,32 @@ public class SessionInactivityFilter extends OncePerRequestFilter {
         String token = jwtUtil.getTokenFromRequest(request);
 
         if (token != null && !token.isEmpty()) {
+            // Calculado por JwtAuthenticationFilter, que va antes en la cadena
+            String tokenId = jwtUtil.getTokenId(request, token);
 
             // 2. VERIFICACIÓN DE REVOCACIÓN (Si ya está en lista negra, bloquear)
-            if (tokenRevocationService.isRevoked(token)) {
+            if (tokenRevocationService.isRevokedById(tokenId)) {
                 sendExpiredResponse(response, "Su sesión ha sido cerrada por inactividad o un nuevo inicio de sesión.");
                 return;
             }
 
-            // 3. VERIFICACIÓN DE INACTIVIDAD POR TIEMPO
-            LocalDateTime lastAccess = lastAccessMap.get(token);
-            LocalDateTime now = LocalDateTime.now();
-            boolean isInactive = false;
-
-            if (lastAccess != null) {
-                Duration duration = Duration.between(lastAccess, now);
+            // 3. VERIFICACIÓN DE INACTIVIDAD POR TIEMPO (y 4. mantener la sesión activa)
+            long now = System.currentTimeMillis();
+            long lastAccess = activityTracker.touch(tokenId, now);
 
-                if (duration.toMinutes() >= inactivityMinutes) {
-                    isInactive = true;
+            if (lastAccess == SessionActivityTracker.NOT_TRACKED) {
+                // Solo se registran tokens válidos: uno inválido no abre sesión
+                Claims claims = jwtUtil.getClaimsIfValid(token, tokenId);
+                if (claims != null) {
+                    activityTracker.start(tokenId, claims.getExpiration().getTime(), now);
                 }
-            }
-
-            if (isInactive) {
+            } else if (activityTracker.isIdle(lastAccess, now)) {
                 // Sesión expirada por inactividad
-                lastAccessMap.remove(token);
-                // CLAVE: Lo agregamos a la lista negra para bloquear cualquier reintento
-                tokenRevocationService.revokeToken(token);
+                // CLAVE: queda en la lista negra para bloquear cualquier reintento
+                activityTracker.expire(tokenId);
                 sendExpiredResponse(response, "Su sesión ha expirado por inactividad.");
                 return; // Detener la cadena
             }
-
-            // 4. Mantener Sesión Activa (Actualizar marca de tiempo).
-            lastAccessMap.put(token, now);
         }
 
         filterChain.doFilter(request, response);
@@ -97,4 +87,4 @@ public class SessionInactivityFilter extends OncePerRequestFilter {
         response.setContentType("application/json");
         response.getWriter().write("{\"error\": \"" + message + "\"}");
     }
-}
\ No newline at end of file
+}
@@ -24,12 +24,14 @@ public class SessionRenewalFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(SessionRenewalFilter.class);
 
     private final JwtUtil jwtUtil;
+    private final SecurityMetrics securityMetrics;
 
     // Umbral de Renovación: 60 segundos (60,000 ms). Si quedan menos de 60s, renovar.
     private static final long RENEWAL_THRESHOLD_MS = 300000L;
 
-    public SessionRenewalFilter(JwtUtil jwtUtil) {
+    public SessionRenewalFilter(JwtUtil jwtUtil, SecurityMetrics securityMetrics) {
         this.jwtUtil = jwtUtil;
+        this.securityMetrics = securityMetrics;
     }
 
     @Override
@@ -46,7 +48,7 @@ public class SessionRenewalFilter extends OncePerRequestFilter {
 
             if (jwt != null) {
 
-                long remainingTimeMs = jwtUtil.getRemainingTimeInMs(jwt);
+                long remainingTimeMs = jwtUtil.getRemainingTimeInMs(jwt, jwtUtil.getTokenId(request, jwt));
 
                 // Verificar si el token es válido y está dentro del umbral de renovación
                 // 1ms < remainingTimeMs < 60000ms
@@ -67,7 +69,8 @@ public class SessionRenewalFilter extends OncePerRequestFilter {
 
                         // Devolver el nuevo token en un encabezado CUSTOM (X-New-Token).
                         response.setHeader("X-New-Token", newJwt);
-                        logger.info("Token JWT renovado automáticamente para el usuario: " + user.getEmail());
+                        securityMetrics.tokenRenewed();
+                        logger.info("Token JWT renovado automáticamente para el usuario: {}", user.getEmail());
                     }
                 }
             }
@@ -0,0 +1,50 @@
+package com.stockmaster.backend.security;
+
+/**
+ * Almacén del estado de sesión: lista negra de tokens y última actividad de cada sesión.
+ * Los tokens se identifican por JwtUtil.tokenId y los tiempos son epoch ms.
+ *
+ * Implementaciones: InMemorySessionStore (por defecto, un solo nodo) y JdbcSessionStore
+ * (session.store=jdbc), compartida entre nodos a través de PostgreSQL.
+ */
+public interface SessionStore {
+
+    /** Valor devuelto cuando la sesión no está registrada. */
+    long NOT_TRACKED = -1L;
+
+    // ── Lista negra ──────────────────────────────────────────────────────────
+
+    void revoke(String tokenId, long tokenExpiresAtMs);
+
+    boolean isRevoked(String tokenId, long now);
+
+    void unrevoke(String tokenId);
+
+    /** Elimina las revocaciones cuyo token ya expiró. Devuelve cuántas se eliminaron. */
+    int evictExpiredRevocations(long now);
+
+    /** Revocaciones vigentes. Puede ser el valor del último barrido (JDBC). */
+    int revokedCount();
+
+    // ── Actividad de sesiones ────────────────────────────────────────────────
+
+    /**
+     * Registra actividad de una sesión existente.
+     * @return la marca anterior de último acceso, o NOT_TRACKED si la sesión no existe.
+     */
+    long touch(String tokenId, long now);
+
+    void startSession(String tokenId, long tokenExpiresAtMs, long now);
+
+    /** Elimina la sesión. Devuelve la expiración de su token, o NOT_TRACKED si no existía. */
+    long endSession(String tokenId);
+
+    /**
+     * Cierra las sesiones sin actividad desde idleBeforeMs (inclusive), revocando su token, y
+     * descarta las sesiones cuyo token ya expiró. Devuelve las cerradas por inactividad.
+     */
+    int expireIdleSessions(long idleBeforeMs, long now);
+
+    /** Sesiones abiertas. Puede ser el valor del último barrido (JDBC). */
+    int sessionCount();
+}
@@ -1,27 +1,54 @@
 package com.stockmaster.backend.security;
 
+import com.stockmaster.backend.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import java.time.LocalDateTime;
-import java.util.concurrent.ConcurrentHashMap;
+
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Servicio que gestiona la Lista Negra (Blacklist) de tokens revocados en memoria.
+ * Servicio que gestiona la Lista Negra (Blacklist) de tokens revocados.
  * Permite bloquear tokens después de la inactividad o un nuevo inicio de sesión.
+ *
+ * Cada entrada se guarda por el hash del token (no el JWT completo) junto con su propia
+ * expiración, y se elimina cuando esta pasa: un token expirado ya es rechazado por la firma,
+ * así que no hace falta seguir recordándolo. El almacenamiento lo resuelve el SessionStore.
  */
 @Service
 public class TokenRevocationService {
 
-    // CLAVE: JWT (String) | VALOR: Tiempo de Revocación (LocalDateTime)
-    private final ConcurrentHashMap<String, LocalDateTime> revokedTokens = new ConcurrentHashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final JwtUtil jwtUtil;
+
+    // Memoria del proceso por defecto; compartido en PostgreSQL con session.store=jdbc
+    private final SessionStore sessionStore;
+    private final SecurityMetrics securityMetrics;
+
+    private final AtomicLong evictedCount = new AtomicLong();
+
+    public TokenRevocationService(JwtUtil jwtUtil, SessionStore sessionStore, SecurityMetrics securityMetrics) {
+        this.jwtUtil = jwtUtil;
+        this.sessionStore = sessionStore;
+        this.securityMetrics = securityMetrics;
+    }
 
     /**
      * Agrega un token a la lista negra.
      * @param token El JWT a revocar.
      */
     public void revokeToken(String token) {
+        // Un token inválido o ya expirado es rechazado igualmente: no ocupa lugar en la lista.
+        Claims claims = jwtUtil.getClaimsIfValid(token);
+        if (claims == null) {
+            return;
+        }
         // Almacenamos el token en la lista negra para bloquear reintentos.
-        System.out.println(">>> [DEBUG REVOCATION] Token REVOCADO por Inactividad/Cierre.");
-        revokedTokens.put(token, LocalDateTime.now());
+        logger.debug("Token revocado por inactividad/cierre.");
+        sessionStore.revoke(JwtUtil.tokenId(token), claims.getExpiration().getTime());
     }
 
     /**
@@ -30,9 +57,15 @@ public class TokenRevocationService {
      * @return true si el token está en la lista negra.
      */
     public boolean isRevoked(String token) {
-        boolean revoked = revokedTokens.containsKey(token);
+        return isRevokedById(JwtUtil.tokenId(token));
+    }
+
+    // Variante para quien ya calculó el id del token (evita repetir el hash)
+    public boolean isRevokedById(String tokenId) {
+        boolean revoked = sessionStore.isRevoked(tokenId, System.currentTimeMillis());
         if (revoked) {
-            System.out.println(">>> [DEBUG REVOCATION] Token ENCONTRADO como revocado. ACCESO DENEGADO.");
+            securityMetrics.tokenRevoked();
+            logger.debug("Token encontrado como revocado. Acceso denegado.");
         }
         return revoked;
     }
@@ -43,6 +76,25 @@ public class TokenRevocationService {
      * @param token El JWT a limpiar.
      */
     public void unrevokeToken(String token) {
-        revokedTokens.remove(token);
+        sessionStore.unrevoke(JwtUtil.tokenId(token));
+    }
+
+    // Barrido periódico de las entradas cuyo token ya expiró
+    @Scheduled(fixedDelayString = "${security.revocation.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        int evicted = sessionStore.evictExpiredRevocations(System.currentTimeMillis());
+        if (evicted > 0) {
+            evictedCount.addAndGet(evicted);
+            logger.debug("Lista negra: {} tokens expirados eliminados", evicted);
+        }
+    }
+
+    // ── Métricas ─────────────────────────────────────────────────────────────
+    public int size() {
+        return sessionStore.revokedCount();
+    }
+
+    public long getEvictedCount() {
+        return evictedCount.get();
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,17 @@
 package com.stockmaster.backend.service;
 
+import com.stockmaster.backend.config.CacheConfig;
 import com.stockmaster.backend.dto.CategoryDto;
 import com.stockmaster.backend.dto.CategoryListDto;
 import com.stockmaster.backend.entity.Category;
 import com.stockmaster.backend.repository.CategoryRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class CategoryService {
@@ -18,20 +20,19 @@ public class CategoryService {
     private CategoryRepository categoryRepository;
 
     // Devuelve todas las categorías (raíces y subcategorías) con su info de jerarquía
+    @Cacheable(cacheNames = CacheConfig.CATEGORY_LIST, key = "'all'")
     public List<CategoryListDto> getAllCategories() {
-        return categoryRepository.findAll().stream()
-                .map(this::toListDto)
-                .collect(Collectors.toList());
+        return categoryRepository.findCategoryList();
     }
 
     // Solo las categorías raíz (para el selector de "categoría padre")
+    @Cacheable(cacheNames = CacheConfig.CATEGORY_LIST, key = "'roots'")
     public List<CategoryListDto> getRootCategories() {
-        return categoryRepository.findByParentCategoryIsNull().stream()
-                .map(this::toListDto)
-                .collect(Collectors.toList());
+        return categoryRepository.findRootCategoryList();
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CATEGORY_LIST, allEntries = true)
     public CategoryListDto createCategory(CategoryDto dto) {
         // Validar nombre obligatorio
         if (dto.getName() == null || dto.getName().isBlank()) {
@@ -61,6 +62,7 @@ public class CategoryService {
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CATEGORY_LIST, allEntries = true)
     public CategoryListDto updateCategory(Long id, CategoryDto dto) {
         Category existing = categoryRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Categoría no encontrada con ID: " + id));
@@ -98,6 +100,7 @@ public class CategoryService {
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CATEGORY_LIST, allEntries = true)
     public void deleteCategory(Long id) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Categoría no encontrada con ID: " + id));
@@ -119,7 +122,7 @@ public class CategoryService {
         categoryRepository.deleteById(id);
     }
 
-    // Conversión de entidad a DTO de lista
+    // Conversión de entidad a DTO de lista (una sola categoría: resultado de crear o actualizar)
     private CategoryListDto toListDto(Category category) {
         CategoryListDto dto = new CategoryListDto();
         dto.setId(category.getId());
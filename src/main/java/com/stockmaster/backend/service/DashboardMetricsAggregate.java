@@ -0,0 +1,328 @@
+package com.stockmaster.backend.service;
+
+import com.stockmaster.backend.dto.DashboardMetricDto;
+import com.stockmaster.backend.dto.LowStockProductDto;
+import com.stockmaster.backend.dto.MovementFilterDto;
+import com.stockmaster.backend.dto.RecentMovementDto;
+import com.stockmaster.backend.event.ActiveCountChangedEvent;
+import com.stockmaster.backend.event.MovementRecordedEvent;
+import com.stockmaster.backend.event.StockChangedEvent;
+import com.stockmaster.backend.repository.InventoryMovementRepository;
+import com.stockmaster.backend.repository.InventoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Métricas del Dashboard mantenidas en memoria. Se siembran una vez al arrancar, se actualizan
+ * de forma incremental con los eventos que publican las rutas de escritura (solo tras el commit)
+ * y un job periódico las reconcilia contra la base de datos, registrando cualquier desviación.
+ */
+@Component
+public class DashboardMetricsAggregate {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardMetricsAggregate.class);
+
+    private static final int RECENT_MOVEMENTS_LIMIT = 5;
+    private static final int RECONCILE_ATTEMPTS = 5;
+    private static final long RECONCILE_RETRY_MS = 50;
+
+    // Los seis contadores en una sola sentencia: todos salen de la misma instantánea
+    private static final String COUNTERS_SQL =
+            "SELECT (SELECT COUNT(*) FROM producto WHERE is_active), " +
+            "       (SELECT COUNT(*) FROM almacen WHERE is_active), " +
+            "       (SELECT COALESCE(SUM(stock_actual), 0) FROM inventario), " +
+            "       (SELECT COUNT(*) FROM movimiento_inventario WHERE fecha_movimiento >= ? AND fecha_movimiento < ?), " +
+            "       (SELECT COUNT(*) FROM usuario), " +
+            "       (SELECT COUNT(*) FROM movimiento_inventario)";
+
+    private static final Comparator<RecentMovementDto> NEWEST_FIRST =
+            Comparator.comparing(RecentMovementDto::getDate).reversed()
+                    .thenComparing(RecentMovementDto::getId, Comparator.reverseOrder());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final InventoryRepository inventoryRepository;
+
+    // Estado protegido por el monitor de esta instancia
+    private volatile Counters counters;
+    private LocalDate today;
+    private List<RecentMovementDto> recentMovements = new ArrayList<>();
+    private List<LowStockProductDto> lowStockProducts = List.of();
+    private long driftCount;
+    // Eventos publicados en transacciones todavía sin completar, y eventos aplicados: ver reconcile()
+    private int inFlight;
+    private long version;
+
+    // Las alertas de stock bajo se recalculan solo cuando algo cambió desde la última lectura
+    private volatile boolean lowStockDirty = true;
+
+    public DashboardMetricsAggregate(JdbcTemplate jdbcTemplate, InventoryMovementRepository inventoryMovementRepository,
+                                     InventoryRepository inventoryRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.inventoryMovementRepository = inventoryMovementRepository;
+        this.inventoryRepository = inventoryRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        Counters loaded = loadCounters(LocalDate.now());
+        List<RecentMovementDto> recent = loadRecentMovements();
+        synchronized (this) {
+            counters = loaded;
+            recentMovements = recent;
+        }
+        lowStockDirty = true;
+        logger.info("Métricas del Dashboard cargadas: {} productos, {} almacenes, {} movimientos",
+                loaded.totalProducts, loaded.totalWarehouses, loaded.totalMovements);
+    }
+
+    /**
+     * Copia las métricas actuales en el DTO del Dashboard sin consultar la base de datos
+     * (salvo las alertas de stock bajo cuando hubo cambios de stock desde la última lectura).
+     */
+    public void fillSummary(DashboardMetricDto summary) {
+        if (counters == null) {
+            seed();
+        }
+        if (lowStockDirty) {
+            lowStockDirty = false;
+            List<LowStockProductDto> lowStock = inventoryRepository.findLowStockAlerts();
+            synchronized (this) {
+                lowStockProducts = lowStock;
+            }
+        }
+        synchronized (this) {
+            rollDayIfNeeded();
+            summary.setTotalProducts(counters.totalProducts);
+            summary.setTotalWarehouses(counters.totalWarehouses);
+            summary.setTotalStock(counters.totalStock);
+            summary.setMovementsToday(counters.movementsToday);
+            summary.setTotalUsers(counters.totalUsers);
+            summary.setTotalMovements(counters.totalMovements);
+            summary.setLowStockProducts(new ArrayList<>(lowStockProducts));
+            summary.setLowStockCount(lowStockProducts.size());
+            summary.setRecentMovements(new ArrayList<>(recentMovements));
+        }
+    }
+
+    // ── Mantenimiento incremental (después del commit) ───────────────────────
+
+    // Se ejecuta al publicar, dentro de la transacción; onEventCompleted la cierra al confirmar o revertir
+    @EventListener({StockChangedEvent.class, MovementRecordedEvent.class, ActiveCountChangedEvent.class})
+    public void onEventPublished() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (this) {
+                inFlight++;
+            }
+        }
+    }
+
+    // AFTER_COMPLETION corre después de todos los AFTER_COMMIT de la transacción
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION,
+            classes = {StockChangedEvent.class, MovementRecordedEvent.class, ActiveCountChangedEvent.class})
+    public void onEventCompleted() {
+        synchronized (this) {
+            inFlight--;
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        synchronized (this) {
+            if (counters != null) {
+                counters.totalStock += event.getDelta();
+                version++;
+            }
+        }
+        lowStockDirty = true;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMovementRecorded(MovementRecordedEvent event) {
+        RecentMovementDto recent = new RecentMovementDto(
+                event.getMovementId(),
+                event.getProductName(),
+                event.getWarehouseName(),
+                event.getQuantity() * (event.getMovementType().equals("SALIDA") ? -1 : 1),
+                event.getMovementDate().toLocalDate(),
+                event.getUserName() != null ? event.getUserName() : "Sistema");
+
+        synchronized (this) {
+            if (counters == null) {
+                return;
+            }
+            rollDayIfNeeded();
+            version++;
+            counters.totalMovements++;
+            if (event.getMovementDate().toLocalDate().equals(today)) {
+                counters.movementsToday++;
+            }
+            recentMovements.add(recent);
+            recentMovements.sort(NEWEST_FIRST);
+            if (recentMovements.size() > RECENT_MOVEMENTS_LIMIT) {
+                recentMovements = new ArrayList<>(recentMovements.subList(0, RECENT_MOVEMENTS_LIMIT));
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onActiveCountChanged(ActiveCountChangedEvent event) {
+        synchronized (this) {
+            if (counters == null) {
+                return;
+            }
+            version++;
+            switch (event.getEntity()) {
+                case ActiveCountChangedEvent.PRODUCT -> counters.totalProducts += event.getDelta();
+                case ActiveCountChangedEvent.WAREHOUSE -> counters.totalWarehouses += event.getDelta();
+                case ActiveCountChangedEvent.USER -> counters.totalUsers += event.getDelta();
+                default -> logger.warn("Entidad desconocida en ActiveCountChangedEvent: {}", event.getEntity());
+            }
+        }
+        // Activar o desactivar productos cambia el nombre visible en las alertas
+        lowStockDirty = true;
+    }
+
+    // ── Reconciliación periódica ─────────────────────────────────────────────
+
+    /**
+     * Compara los contadores en memoria con la base de datos. Si hay diferencias las registra
+     * y adopta los valores de la base de datos.
+     *
+     * Solo se compara si ninguna transacción con eventos pendientes pudo confirmarse durante la lectura:
+     * sin ninguna en curso antes y después, y sin eventos aplicados entre medias. Así la lectura y la memoria
+     * reflejan las mismas transacciones y no se cuenta dos veces ni se pierde ningún evento. Con escrituras
+     * continuas se reintenta unas pocas veces y, si no, se deja para la siguiente ejecución.
+     */
+    @Scheduled(initialDelayString = "${dashboard.metrics.reconcile-interval-ms:300000}",
+            fixedDelayString = "${dashboard.metrics.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        for (int attempt = 1; attempt <= RECONCILE_ATTEMPTS; attempt++) {
+            long versionBefore;
+            LocalDate day;
+            boolean seeded;
+            boolean quiet;
+            synchronized (this) {
+                seeded = counters != null;
+                if (seeded) {
+                    rollDayIfNeeded();
+                }
+                day = seeded ? today : LocalDate.now();
+                versionBefore = version;
+                quiet = inFlight == 0;
+            }
+            if ((quiet || !seeded) && tryReconcile(seeded, versionBefore, day)) {
+                lowStockDirty = true;
+                return;
+            }
+            try {
+                Thread.sleep(RECONCILE_RETRY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        logger.debug("Reconciliación del Dashboard pospuesta: hubo escrituras durante todos los intentos");
+    }
+
+    private boolean tryReconcile(boolean seeded, long versionBefore, LocalDate day) {
+        Counters actual = loadCounters(day);
+        List<RecentMovementDto> recent = loadRecentMovements();
+        synchronized (this) {
+            if (!seeded || counters == null) {
+                counters = actual;
+                recentMovements = recent;
+                return true;
+            }
+            rollDayIfNeeded();
+            if (inFlight > 0 || version != versionBefore || !day.equals(today)) {
+                return false;
+            }
+            int drifted = 0;
+            drifted += reportDrift("totalProducts", counters.totalProducts, actual.totalProducts);
+            drifted += reportDrift("totalWarehouses", counters.totalWarehouses, actual.totalWarehouses);
+            drifted += reportDrift("totalStock", counters.totalStock, actual.totalStock);
+            drifted += reportDrift("totalUsers", counters.totalUsers, actual.totalUsers);
+            drifted += reportDrift("totalMovements", counters.totalMovements, actual.totalMovements);
+            drifted += reportDrift("movementsToday", counters.movementsToday, actual.movementsToday);
+            driftCount += drifted;
+            counters = actual;
+            recentMovements = recent;
+            return true;
+        }
+    }
+
+    public synchronized long getDriftCount() {
+        return driftCount;
+    }
+
+    private int reportDrift(String metric, long inMemory, long inDatabase) {
+        if (inMemory == inDatabase) {
+            return 0;
+        }
+        logger.warn("Desviación en la métrica '{}' del Dashboard: memoria={}, base de datos={}", metric, inMemory, inDatabase);
+        return 1;
+    }
+
+    // Debe llamarse con el monitor tomado
+    private void rollDayIfNeeded() {
+        LocalDate now = LocalDate.now();
+        if (!now.equals(today)) {
+            if (today != null) {
+                counters.movementsToday = 0;
+            }
+            today = now;
+        }
+    }
+
+    private Counters loadCounters(LocalDate day) {
+        return jdbcTemplate.queryForObject(COUNTERS_SQL, (rs, rowNum) -> {
+            Counters loaded = new Counters();
+            loaded.totalProducts = rs.getLong(1);
+            loaded.totalWarehouses = rs.getLong(2);
+            loaded.totalStock = rs.getLong(3);
+            loaded.movementsToday = rs.getLong(4);
+            loaded.totalUsers = rs.getLong(5);
+            loaded.totalMovements = rs.getLong(6);
+            return loaded;
+        }, Timestamp.valueOf(day.atStartOfDay()), Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+    }
+
+    private List<RecentMovementDto> loadRecentMovements() {
+        return inventoryMovementRepository.findHistoryPage(new MovementFilterDto(), null, null, RECENT_MOVEMENTS_LIMIT)
+                .stream()
+                .map(m -> new RecentMovementDto(
+                        m.getId(),
+                        m.getProductName(),
+                        m.getWarehouseName(),
+                        m.getQuantity() * (m.getMovementType().equals("SALIDA") ? -1 : 1),
+                        m.getMovementDate().toLocalDate(),
+                        m.getUserName() != null ? m.getUserName() : "Sistema"
+                ))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private static class Counters {
+        long totalProducts;
+        long totalWarehouses;
+        long totalStock;
+        long movementsToday;
+        long totalUsers;
+        long totalMovements;
+    }
+}
@@ -0,0 +1,12 @@
+package com.stockmaster.backend.service;
+
+/**
+ * Salida o ajuste que dejaría el stock en negativo. Extiende IllegalStateException para que los
+ * controladores la sigan tratando como hasta ahora; el tipo propio permite distinguirla en métricas.
+ */
+public class InsufficientStockException extends IllegalStateException {
+
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
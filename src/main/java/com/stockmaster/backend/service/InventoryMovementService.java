@@ -1,19 +1,56 @@
 package com.stockmaster.backend.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockmaster.backend.dto.MovementBatchDto;
+import com.stockmaster.backend.dto.MovementBatchItemResultDto;
+import com.stockmaster.backend.dto.MovementBatchResultDto;
 import com.stockmaster.backend.dto.MovementDto;
+import com.stockmaster.backend.dto.MovementFilterDto;
+import com.stockmaster.backend.dto.MovementPageDto;
 import com.stockmaster.backend.dto.StockAdjustmentDto;
+import com.stockmaster.backend.dto.TransferBatchDto;
 import com.stockmaster.backend.dto.TransferDto;
+import com.stockmaster.backend.dto.TransferLineDto;
+import com.stockmaster.backend.dto.TransferLineResultDto;
+import com.stockmaster.backend.dto.TransferResultDto;
 import com.stockmaster.backend.dto.WarehouseStockDto;
 import com.stockmaster.backend.entity.*;
+import com.stockmaster.backend.event.MovementRecordedEvent;
+import com.stockmaster.backend.event.StockChangedEvent;
 import com.stockmaster.backend.repository.*;
+import com.stockmaster.backend.util.Ulid;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class InventoryMovementService {
@@ -28,12 +65,83 @@ public class InventoryMovementService {
     private UserRepository userRepository;
     @Autowired
     private InventoryMovementRepository movementRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private SalesRollupService salesRollupService;
+    @Autowired
+    private ObjectMapper objectMapper;
 
-    public List<MovementDto> getAllMovements() {
-        List<InventoryMovement> movements = movementRepository.findAll();
-        return movements.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public static final String BATCH_ALL_OR_NOTHING = "TODO_O_NADA";
+    public static final String BATCH_BEST_EFFORT = "MEJOR_ESFUERZO";
+    static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_HISTORY_PAGE_SIZE = 500;
+
+    private static final String INSERT_MOVEMENT_SQL =
+            "INSERT INTO movimiento_inventario (fecha_movimiento, tipo_movimiento, cantidad, motivo, " +
+            "referencia_transferencia, id_producto, id_almacen, id_usuario) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Crea la fila de inventario si no existe; si otra transacción la está creando, espera y no hace nada
+    private static final String ENSURE_INVENTORY_SQL =
+            "INSERT INTO inventario (id_producto, id_almacen, stock_actual, stock_minimo) " +
+            "SELECT ?, ?, 0, 12 WHERE NOT EXISTS (SELECT 1 FROM inventario WHERE id_producto = ? AND id_almacen = ?) " +
+            "ON CONFLICT DO NOTHING";
+    private static final String INCREASE_INVENTORY_SQL =
+            "UPDATE inventario SET stock_actual = stock_actual + ? WHERE id_producto = ? AND id_almacen = ?";
+
+    /**
+     * Historial completo como arreglo JSON, escrito movimiento a movimiento sobre la salida. La consulta se
+     * recorre con un cursor de solo avance, así la memoria no crece con el tamaño del libro.
+     */
+    @Transactional
+    public void writeAllMovements(OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+             Stream<MovementDto> rows = movementRepository.streamAllAsDto()) {
+            // La salida la cierra el contenedor
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartArray();
+            Iterator<MovementDto> it = rows.iterator();
+            while (it.hasNext()) {
+                json.writeObject(it.next());
+            }
+            json.writeEndArray();
+        }
+    }
+
+    /**
+     * Historial paginado por cursor (keyset) sobre (fecha_movimiento, id_movimiento), del más
+     * reciente al más antiguo. El cursor de la respuesta se envía tal cual para pedir la página siguiente.
+     */
+    public MovementPageDto getMovementHistoryPage(MovementFilterDto filter, String cursor, int limit) {
+        if (limit <= 0 || limit > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + MAX_HISTORY_PAGE_SIZE + ".");
+        }
+        LocalDateTime cursorDate = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                cursorDate = LocalDateTime.parse(parts[0]);
+                cursorId = Long.parseLong(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor de paginación inválido.");
+            }
+        }
+
+        // Se pide un registro extra para saber si existe una página siguiente
+        List<MovementDto> rows = movementRepository.findHistoryPage(filter, cursorDate, cursorId, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<MovementDto> items = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            MovementDto last = items.get(items.size() - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (last.getMovementDate() + "|" + last.getId()).getBytes(StandardCharsets.UTF_8));
+        }
+        return new MovementPageDto(new ArrayList<>(items), nextCursor, hasMore);
     }
 
     public List<WarehouseStockDto> getProductStockByWarehouses(Long productId) {
@@ -89,25 +197,12 @@ public class InventoryMovementService {
                     if (type.equals("SALIDA")) {
                         throw new IllegalStateException("No existe inventario de este producto en el almacén seleccionado.");
                     }
-                    Inventory newInventory = new Inventory();
-                    newInventory.setProduct(product);
-                    newInventory.setWarehouse(warehouse);
-                    newInventory.setCurrentStock(0);
-                    newInventory.setMinStock(12);
-                    return newInventory;
+                    return ensureInventory(product, warehouse);
                 });
 
-        int newStock;
-        if (type.equals("ENTRADA")) {
-            newStock = inventory.getCurrentStock() + dto.getQuantity();
-        } else {
-            if (inventory.getCurrentStock() < dto.getQuantity()) {
-                throw new IllegalStateException("Stock insuficiente. Hay " + inventory.getCurrentStock() + " unidades y se intenta sacar " + dto.getQuantity() + ".");
-            }
-            newStock = inventory.getCurrentStock() - dto.getQuantity();
-        }
-        inventory.setCurrentStock(newStock);
-        inventoryRepository.save(inventory);
+        int delta = type.equals("ENTRADA") ? dto.getQuantity() : -dto.getQuantity();
+        applyStockChange(inventory, delta, available ->
+                "Stock insuficiente. Hay " + available + " unidades y se intenta sacar " + dto.getQuantity() + ".");
 
         InventoryMovement movement = new InventoryMovement();
         movement.setProduct(product);
@@ -117,114 +212,218 @@ public class InventoryMovementService {
         movement.setUser(user);
         movement.setMotive(dto.getMotive());
 
-        return movementRepository.save(movement);
+        return saveMovement(movement);
     }
 
-    private MovementDto convertToDto(InventoryMovement movement) {
-        MovementDto dto = new MovementDto();
-        dto.setId(movement.getId());
-        dto.setQuantity(movement.getQuantity());
-        dto.setMovementType(movement.getMovementType());
-        dto.setMovementDate(movement.getMovementDate());
-        dto.setMotive(movement.getMotive());
-        dto.setTransferReference(movement.getTransferReference());
-
-        if (movement.getProduct() != null) {
-            dto.setProductId(movement.getProduct().getId());
-            dto.setProductName(movement.getProduct().getName());
-        }
-        if (movement.getWarehouse() != null) {
-            dto.setWarehouseId(movement.getWarehouse().getId());
-            dto.setWarehouseName(movement.getWarehouse().getName());
-        }
-        if (movement.getUser() != null) {
-            dto.setUserId(movement.getUser().getId());
-            dto.setUserName(movement.getUser().getName());
+    /**
+     * Aplica un delta de stock con un UPDATE atómico en lugar de leer, calcular en Java y guardar.
+     * Las salidas solo se aplican si stock_actual >= cantidad, por lo que salidas concurrentes sobre
+     * el mismo SKU no pierden actualizaciones ni dejan el stock en negativo.
+     */
+    private void applyStockChange(Inventory inventory, int delta, IntFunction<String> insufficientStockMessage) {
+        if (delta >= 0) {
+            inventoryRepository.increaseStock(inventory.getId(), delta);
+        } else if (inventoryRepository.decreaseStock(inventory.getId(), -delta) == 0) {
+            int available = inventoryRepository.findCurrentStockById(inventory.getId());
+            throw new InsufficientStockException(insufficientStockMessage.apply(available));
         }
-        return dto;
+        eventPublisher.publishEvent(new StockChangedEvent(
+                inventory.getProduct().getId(), inventory.getWarehouse().getId(), delta));
+    }
+
+    /**
+     * Primera entrada del producto en el almacén: la fila se crea con stock 0 mediante ENSURE_INVENTORY_SQL
+     * y el delta se aplica después con el UPDATE atómico. Dos primeras entradas concurrentes del mismo par
+     * no chocan con uk_inventario_producto_almacen: la segunda espera a la primera y suma sobre su fila.
+     */
+    private Inventory ensureInventory(Product product, Warehouse warehouse) {
+        jdbcTemplate.update(ENSURE_INVENTORY_SQL, product.getId(), warehouse.getId(), product.getId(), warehouse.getId());
+        return inventoryRepository.findByProductAndWarehouse(product, warehouse)
+                .orElseThrow(() -> new IllegalStateException("No se pudo crear el inventario del producto en el almacén."));
+    }
+
+    private InventoryMovement saveMovement(InventoryMovement movement) {
+        InventoryMovement saved = movementRepository.save(movement);
+        salesRollupService.recordSales(List.of(saved));
+        publishMovementRecorded(saved);
+        return saved;
+    }
+
+    // Los consumidores (métricas del Dashboard, etc.) lo procesan solo tras el commit
+    private void publishMovementRecorded(InventoryMovement movement) {
+        eventPublisher.publishEvent(new MovementRecordedEvent(
+                movement.getId(),
+                movement.getProduct().getId(),
+                movement.getProduct().getName(),
+                movement.getWarehouse().getId(),
+                movement.getWarehouse().getName(),
+                movement.getMovementType(),
+                movement.getQuantity(),
+                movement.getMovementDate(),
+                movement.getUser().getName()));
     }
 
-    // HU20 - Transferencia de Stock
+    // ─────────────────────────────────────────────────────────────────────────
+    // HU20 — Transferencia de stock entre almacenes
+    // ─────────────────────────────────────────────────────────────────────────
+
     @Transactional
     public Map<String, Object> transferStock(TransferDto dto) {
-        if (dto.getOriginWarehouseId().equals(dto.getDestinationWarehouseId())) {
+        TransferOutcome outcome = executeTransfer(dto.getOriginWarehouseId(), dto.getDestinationWarehouseId(),
+                dto.getUserId(), dto.getMotive(), List.of(new TransferLineDto(dto.getProductId(), dto.getQuantity())));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("transferReference", outcome.reference());
+        result.put("exitMovement", outcome.exits().get(0));
+        result.put("entryMovement", outcome.entries().get(0));
+        return result;
+    }
+
+    /**
+     * Envío de varios productos entre dos almacenes en una sola transacción: si alguna línea
+     * no tiene stock suficiente no se registra ninguna. Todas las líneas comparten la referencia.
+     */
+    @Transactional
+    public TransferResultDto transferStockBatch(TransferBatchDto dto) {
+        TransferOutcome outcome = executeTransfer(dto.getOriginWarehouseId(), dto.getDestinationWarehouseId(),
+                dto.getUserId(), dto.getMotive(), dto.getLines());
+
+        List<TransferLineResultDto> lines = new ArrayList<>(outcome.exits().size());
+        for (int i = 0; i < outcome.exits().size(); i++) {
+            InventoryMovement exit = outcome.exits().get(i);
+            InventoryMovement entry = outcome.entries().get(i);
+            lines.add(new TransferLineResultDto(exit.getProduct().getId(), exit.getQuantity(),
+                    exit.getId(), entry.getId(), outcome.originStock()[i], outcome.destinationStock()[i]));
+        }
+        return new TransferResultDto(outcome.reference(), lines);
+    }
+
+    private record TransferOutcome(String reference, List<InventoryMovement> exits, List<InventoryMovement> entries,
+                                   int[] originStock, int[] destinationStock) {
+    }
+
+    /**
+     * Motor de transferencias. Para que dos envíos concurrentes en sentidos opuestos (A→B y B→A)
+     * no se bloqueen mutuamente, las filas de inventario de ambos almacenes se bloquean con un único
+     * SELECT ... FOR UPDATE ordenado por id, el mismo orden que usa registerBatch. Los movimientos
+     * sueltos (entradas, salidas, ajustes) bloquean una sola fila, así que no pueden cerrar un ciclo.
+     *
+     * Las filas que faltan en el destino se crean antes de bloquear: las inserciones concurrentes del
+     * mismo par esperan a la primera y no la duplican (uk_inventario_producto_almacen).
+     */
+    private TransferOutcome executeTransfer(Long originId, Long destinationId, Long userId, String motive,
+                                            List<TransferLineDto> lines) {
+        if (originId == null || destinationId == null) {
+            throw new IllegalArgumentException("Debe indicar el almacén de origen y el de destino.");
+        }
+        if (originId.equals(destinationId)) {
             throw new IllegalArgumentException("El almacén de origen y destino no pueden ser el mismo.");
         }
-        if (dto.getQuantity() <= 0) {
-            throw new IllegalArgumentException("La cantidad a transferir debe ser mayor a cero.");
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("La transferencia debe contener al menos un producto.");
+        }
+        if (lines.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("La transferencia no puede superar " + MAX_BATCH_SIZE + " productos.");
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i).getQuantity() <= 0) {
+                throw new IllegalArgumentException(linePrefix(lines, i) + "La cantidad a transferir debe ser mayor a cero.");
+            }
         }
 
-        Product product = productRepository.findById(dto.getProductId())
-                .filter(Product::isActive)
-                .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado o inactivo."));
-        Warehouse origin = warehouseRepository.findById(dto.getOriginWarehouseId())
+        // 1. Resolver entidades
+        Map<Long, Product> products = productRepository.findAllById(lines.stream()
+                        .map(TransferLineDto::getProductId).filter(Objects::nonNull).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+        for (int i = 0; i < lines.size(); i++) {
+            Product product = products.get(lines.get(i).getProductId());
+            if (product == null || !product.isActive()) {
+                throw new IllegalArgumentException(linePrefix(lines, i) + "Producto no encontrado o inactivo.");
+            }
+        }
+        Warehouse origin = warehouseRepository.findById(originId)
                 .orElseThrow(() -> new IllegalArgumentException("Almacén de origen no encontrado."));
-        Warehouse destination = warehouseRepository.findById(dto.getDestinationWarehouseId())
+        Warehouse destination = warehouseRepository.findById(destinationId)
                 .orElseThrow(() -> new IllegalArgumentException("Almacén de destino no encontrado."));
-        User user = userRepository.findById(dto.getUserId())
+        User user = userRepository.findById(userId)
                 .filter(User::isActive)
                 .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado o inactivo."));
 
-        String transferReference = "TRANS-" + System.currentTimeMillis();
-
-        Inventory originInventory = getAndValidateInventory(product, origin, dto.getQuantity(), "SALIDA");
-        Inventory destinationInventory = getAndValidateInventory(product, destination, 0, "ENTRADA");
-
-        InventoryMovement exitMovement = executeMovement(product, origin, user, dto.getQuantity(),
-                "SALIDA", transferReference, dto.getMotive(), originInventory);
-        InventoryMovement entryMovement = executeMovement(product, destination, user, dto.getQuantity(),
-                "ENTRADA", transferReference, dto.getMotive(), destinationInventory);
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("transferReference", transferReference);
-        result.put("exitMovement", exitMovement);
-        result.put("entryMovement", entryMovement);
-        return result;
-    }
-
-    private Inventory getAndValidateInventory(Product product, Warehouse warehouse, int quantity, String type) {
-        Inventory inventory = inventoryRepository.findByProductAndWarehouse(product, warehouse)
-                .orElseGet(() -> {
-                    if (type.equals("SALIDA")) {
-                        throw new IllegalStateException("No existe inventario de este producto en el almacén seleccionado.");
-                    }
-                    Inventory newInventory = new Inventory();
-                    newInventory.setProduct(product);
-                    newInventory.setWarehouse(warehouse);
-                    newInventory.setCurrentStock(0);
-                    newInventory.setMinStock(12);
-                    return newInventory;
-                });
-
-        if (type.equals("SALIDA") && inventory.getCurrentStock() < quantity) {
-            throw new IllegalStateException("Stock insuficiente en el almacén de origen. Hay " + inventory.getCurrentStock() + " unidades y se intenta sacar " + quantity + ".");
+        // 2. Crear las filas de destino que falten y bloquear todas las filas implicadas
+        List<Long> productIds = products.keySet().stream().sorted().toList();
+        jdbcTemplate.batchUpdate(ENSURE_INVENTORY_SQL, productIds.stream()
+                .map(id -> new Object[]{id, destinationId, id, destinationId})
+                .toList());
+
+        Map<String, Inventory> inventories = new HashMap<>();
+        inventoryRepository.lockByProductIdsAndWarehouseIds(productIds, List.of(originId, destinationId))
+                .forEach(i -> inventories.put(inventoryKey(i.getProduct().getId(), i.getWarehouse().getId()), i));
+
+        // 3. Validar y aplicar cada línea sobre las filas bloqueadas
+        String transferReference = "TRANS-" + Ulid.next();
+        List<InventoryMovement> exits = new ArrayList<>(lines.size());
+        List<InventoryMovement> entries = new ArrayList<>(lines.size());
+        int[] originStock = new int[lines.size()];
+        int[] destinationStock = new int[lines.size()];
+        Map<Long, Integer> movedByProduct = new LinkedHashMap<>();
+
+        for (int i = 0; i < lines.size(); i++) {
+            Product product = products.get(lines.get(i).getProductId());
+            int quantity = lines.get(i).getQuantity();
+            Inventory originInventory = inventories.get(inventoryKey(product.getId(), originId));
+            if (originInventory == null) {
+                throw new IllegalStateException(linePrefix(lines, i)
+                        + "No existe inventario de este producto en el almacén seleccionado.");
+            }
+            if (originInventory.getCurrentStock() < quantity) {
+                throw new InsufficientStockException(linePrefix(lines, i) + "Stock insuficiente en el almacén de origen. Hay "
+                        + originInventory.getCurrentStock() + " unidades y se intenta sacar " + quantity + ".");
+            }
+            Inventory destinationInventory = inventories.get(inventoryKey(product.getId(), destinationId));
+            originInventory.setCurrentStock(originInventory.getCurrentStock() - quantity);
+            destinationInventory.setCurrentStock(destinationInventory.getCurrentStock() + quantity);
+            originStock[i] = originInventory.getCurrentStock();
+            destinationStock[i] = destinationInventory.getCurrentStock();
+            movedByProduct.merge(product.getId(), quantity, Integer::sum);
+
+            exits.add(transferMovement(product, origin, user, quantity, "SALIDA", transferReference, motive));
+            entries.add(transferMovement(product, destination, user, quantity, "ENTRADA", transferReference, motive));
         }
-        return inventory;
-    }
 
-    private InventoryMovement executeMovement(Product product, Warehouse warehouse, User user, int quantity,
-                                              String type, String transferRef, String motive, Inventory inventory) {
-        if (inventory.getId() == null) {
-            inventoryRepository.save(inventory);
+        // 4. Persistir: stock final de las filas ya bloqueadas y movimientos en un batch JDBC
+        inventoryRepository.saveAll(inventories.values());
+        List<InventoryMovement> movements = new ArrayList<>(lines.size() * 2);
+        for (int i = 0; i < lines.size(); i++) {
+            movements.add(exits.get(i));
+            movements.add(entries.get(i));
         }
+        insertMovementsBatch(movements);
 
-        int newStock = type.equals("ENTRADA")
-                ? inventory.getCurrentStock() + quantity
-                : inventory.getCurrentStock() - quantity;
+        movedByProduct.forEach((productId, quantity) -> {
+            eventPublisher.publishEvent(new StockChangedEvent(productId, originId, -quantity));
+            eventPublisher.publishEvent(new StockChangedEvent(productId, destinationId, quantity));
+        });
+        movements.forEach(this::publishMovementRecorded);
 
-        inventory.setCurrentStock(newStock);
-        inventoryRepository.save(inventory);
+        return new TransferOutcome(transferReference, exits, entries, originStock, destinationStock);
+    }
 
+    private static InventoryMovement transferMovement(Product product, Warehouse warehouse, User user, int quantity,
+                                                      String type, String transferReference, String motive) {
         InventoryMovement movement = new InventoryMovement();
         movement.setProduct(product);
         movement.setWarehouse(warehouse);
         movement.setQuantity(quantity);
         movement.setMovementType(type);
         movement.setUser(user);
-        movement.setTransferReference(transferRef);
+        movement.setTransferReference(transferReference);
         movement.setMotive(motive);
+        return movement;
+    }
 
-        return movementRepository.save(movement);
+    // En los envíos de varias líneas el error indica cuál la provocó
+    private static String linePrefix(List<TransferLineDto> lines, int index) {
+        return lines.size() > 1 ? "Línea " + (index + 1) + ": " : "";
     }
 
     // ─────────────────────────────────────────────────────────────────────────
@@ -266,35 +465,24 @@ public class InventoryMovementService {
                         throw new IllegalStateException(
                                 "No existe inventario de este producto en el almacén seleccionado.");
                     }
-                    Inventory newInventory = new Inventory();
-                    newInventory.setProduct(product);
-                    newInventory.setWarehouse(warehouse);
-                    newInventory.setCurrentStock(0);
-                    newInventory.setMinStock(12);
-                    return newInventory;
+                    return ensureInventory(product, warehouse);
                 });
 
-        // 4. Calcular nuevo stock
-        int newStock;
+        // 4. Aplicar el ajuste de forma atómica (un ajuste negativo nunca deja stock negativo)
         String movementType;
+        int delta;
         if ("POSITIVO".equals(dto.getAdjustmentType())) {
-            newStock     = inventory.getCurrentStock() + dto.getQuantity();
             movementType = "AJUSTE_POSITIVO";
+            delta        = dto.getQuantity();
         } else {
-            if (inventory.getCurrentStock() < dto.getQuantity()) {
-                throw new IllegalStateException(
-                        "Stock insuficiente. Hay " + inventory.getCurrentStock()
-                                + " unidades y se intenta ajustar -" + dto.getQuantity() + ".");
-            }
-            newStock     = inventory.getCurrentStock() - dto.getQuantity();
             movementType = "AJUSTE_NEGATIVO";
+            delta        = -dto.getQuantity();
         }
+        applyStockChange(inventory, delta, available ->
+                "Stock insuficiente. Hay " + available
+                        + " unidades y se intenta ajustar -" + dto.getQuantity() + ".");
 
-        // 5. Persistir stock actualizado
-        inventory.setCurrentStock(newStock);
-        inventoryRepository.save(inventory);
-
-        // 6. Registrar el movimiento de ajuste
+        // 5. Registrar el movimiento de ajuste
         String motive = dto.getReason();
         if (dto.getNotes() != null && !dto.getNotes().isBlank()) {
             motive = motive + ": " + dto.getNotes().trim();
@@ -308,6 +496,268 @@ public class InventoryMovementService {
         movement.setUser(user);
         movement.setMotive(motive);
 
-        return movementRepository.save(movement);
+        return saveMovement(movement);
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+    // Registro de movimientos por lotes (recepción en muelle)
+    // ─────────────────────────────────────────────────────────────────────────
+
+    /**
+     * Registra un lote de entradas y salidas en una sola transacción.
+     * Productos, almacenes, usuarios e inventarios se resuelven con una consulta por entidad
+     * (las filas de inventario quedan bloqueadas con FOR UPDATE), el stock se valida en memoria
+     * respetando el orden del lote y los movimientos se insertan en un único batch JDBC.
+     *
+     * En modo TODO_O_NADA, si algún ítem falla no se persiste nada; en MEJOR_ESFUERZO se
+     * registran los ítems válidos y se informa el error de los demás.
+     */
+    @Transactional
+    public MovementBatchResultDto registerBatch(MovementBatchDto dto) {
+        List<MovementDto> items = dto.getMovements();
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("El lote debe contener al menos un movimiento.");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("El lote no puede superar " + MAX_BATCH_SIZE + " movimientos.");
+        }
+        String mode = (dto.getMode() == null || dto.getMode().isBlank()) ? BATCH_ALL_OR_NOTHING : dto.getMode();
+        if (!BATCH_ALL_OR_NOTHING.equals(mode) && !BATCH_BEST_EFFORT.equals(mode)) {
+            throw new IllegalArgumentException("El modo del lote debe ser TODO_O_NADA o MEJOR_ESFUERZO.");
+        }
+        return processBatch(items, mode).result();
+    }
+
+    /**
+     * Grupo de MovementJournal (escritura diferida): los movimientos encolados se registran como un
+     * lote MEJOR_ESFUERZO en una sola transacción. Devuelve, en el orden recibido, el movimiento
+     * registrado o la excepción de cada ítem, la misma que habría lanzado registerEntry/registerExit.
+     */
+    @Transactional
+    public List<GroupItemOutcome> registerJournalGroup(List<MovementDto> items) {
+        BatchRun run = processBatch(items, BATCH_BEST_EFFORT);
+        List<GroupItemOutcome> outcomes = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            outcomes.add(new GroupItemOutcome(run.movements()[i], run.errors()[i]));
+        }
+        return outcomes;
+    }
+
+    public record GroupItemOutcome(InventoryMovement movement, RuntimeException error) {
+    }
+
+    private record BatchRun(MovementBatchResultDto result, InventoryMovement[] movements, RuntimeException[] errors) {
+    }
+
+    private BatchRun processBatch(List<MovementDto> items, String mode) {
+        // 1. Resolver entidades con una consulta por tipo
+        Map<Long, Product> products = productRepository.findAllById(collectIds(items, MovementDto::getProductId))
+                .stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<Long, Warehouse> warehouses = warehouseRepository.findAllById(collectIds(items, MovementDto::getWarehouseId))
+                .stream().collect(Collectors.toMap(Warehouse::getId, Function.identity()));
+        Map<Long, User> users = userRepository.findAllById(collectIds(items, MovementDto::getUserId))
+                .stream().collect(Collectors.toMap(User::getId, Function.identity()));
+
+        Map<String, Inventory> inventories = new HashMap<>();
+        if (!products.isEmpty() && !warehouses.isEmpty()) {
+            inventoryRepository.lockByProductIdsAndWarehouseIds(products.keySet(), warehouses.keySet())
+                    .forEach(i -> inventories.put(inventoryKey(i.getProduct().getId(), i.getWarehouse().getId()), i));
+        }
+
+        // 2. Validar cada ítem contra el stock acumulado en memoria
+        Map<String, Integer> runningStock = new LinkedHashMap<>();
+        Map<String, Integer> originalStock = new HashMap<>();
+        List<MovementBatchItemResultDto> results = new ArrayList<>(items.size());
+        List<InventoryMovement> accepted = new ArrayList<>();
+        List<MovementBatchItemResultDto> acceptedResults = new ArrayList<>();
+        InventoryMovement[] movementsByIndex = new InventoryMovement[items.size()];
+        RuntimeException[] errorsByIndex = new RuntimeException[items.size()];
+
+        for (int index = 0; index < items.size(); index++) {
+            MovementDto item = items.get(index);
+            try {
+                String type = item.getMovementType();
+                if (!"ENTRADA".equals(type) && !"SALIDA".equals(type)) {
+                    throw new IllegalArgumentException("El tipo de movimiento debe ser ENTRADA o SALIDA.");
+                }
+                Product product = Optional.ofNullable(products.get(item.getProductId()))
+                        .filter(Product::isActive)
+                        .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado o inactivo."));
+                Warehouse warehouse = Optional.ofNullable(warehouses.get(item.getWarehouseId()))
+                        .orElseThrow(() -> new IllegalArgumentException("Almacén no encontrado."));
+                User user = Optional.ofNullable(users.get(item.getUserId()))
+                        .filter(User::isActive)
+                        .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado o inactivo."));
+                if (item.getQuantity() <= 0) {
+                    throw new IllegalArgumentException("La cantidad debe ser mayor a cero.");
+                }
+
+                String key = inventoryKey(product.getId(), warehouse.getId());
+                Inventory inventory = inventories.get(key);
+                if (inventory == null) {
+                    if (type.equals("SALIDA")) {
+                        throw new IllegalStateException("No existe inventario de este producto en el almacén seleccionado.");
+                    }
+                    // Fila nueva: se crea al persistir, solo si el lote llega a registrarse
+                    inventory = new Inventory();
+                    inventory.setProduct(product);
+                    inventory.setWarehouse(warehouse);
+                    inventory.setCurrentStock(0);
+                    inventories.put(key, inventory);
+                }
+
+                originalStock.putIfAbsent(key, inventory.getCurrentStock());
+                int stock = runningStock.getOrDefault(key, inventory.getCurrentStock());
+                int newStock;
+                if (type.equals("ENTRADA")) {
+                    newStock = stock + item.getQuantity();
+                } else {
+                    if (stock < item.getQuantity()) {
+                        throw new InsufficientStockException("Stock insuficiente. Hay " + stock + " unidades y se intenta sacar " + item.getQuantity() + ".");
+                    }
+                    newStock = stock - item.getQuantity();
+                }
+                runningStock.put(key, newStock);
+
+                InventoryMovement movement = new InventoryMovement();
+                movement.setProduct(product);
+                movement.setWarehouse(warehouse);
+                movement.setQuantity(item.getQuantity());
+                movement.setMovementType(type);
+                movement.setUser(user);
+                movement.setMotive(item.getMotive());
+                accepted.add(movement);
+                movementsByIndex[index] = movement;
+
+                MovementBatchItemResultDto itemResult = new MovementBatchItemResultDto(index, true, null, newStock, null);
+                acceptedResults.add(itemResult);
+                results.add(itemResult);
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                results.add(new MovementBatchItemResultDto(index, false, null, null, e.getMessage()));
+                errorsByIndex[index] = e;
+            }
+        }
+
+        MovementBatchResultDto result = new MovementBatchResultDto();
+        result.setMode(mode);
+        result.setResults(results);
+
+        int failures = items.size() - accepted.size();
+        if (accepted.isEmpty() || (failures > 0 && BATCH_ALL_OR_NOTHING.equals(mode))) {
+            // No se ha escrito nada todavía, basta con no persistir
+            acceptedResults.forEach(r -> {
+                r.setSuccess(false);
+                r.setResultingStock(null);
+                r.setMessage("Movimiento válido, no registrado porque el lote contiene errores.");
+            });
+            result.setCommitted(false);
+            result.setSuccessCount(0);
+            result.setFailureCount(items.size());
+            return new BatchRun(result, new InventoryMovement[items.size()], errorsByIndex);
+        }
+
+        // 3. Persistir stock final de las filas bloqueadas (UPDATE agrupados por hibernate.jdbc.batch_size),
+        //    crear las filas nuevas y sumarles su stock, y registrar los movimientos (batch JDBC)
+        List<Inventory> touched = new ArrayList<>(runningStock.size());
+        Map<String, Integer> created = new HashMap<>();
+        runningStock.forEach((key, stock) -> {
+            Inventory inventory = inventories.get(key);
+            if (inventory.getId() == null) {
+                created.put(key, stock);
+            } else {
+                inventory.setCurrentStock(stock);
+                touched.add(inventory);
+            }
+        });
+        inventoryRepository.saveAll(touched);
+        createInventories(created, inventories);
+
+        List<Long> ids = insertMovementsBatch(accepted);
+        for (int i = 0; i < ids.size(); i++) {
+            acceptedResults.get(i).setMovementId(ids.get(i));
+        }
+        salesRollupService.recordSales(accepted);
+
+        runningStock.forEach((key, stock) -> {
+            Inventory inventory = inventories.get(key);
+            eventPublisher.publishEvent(new StockChangedEvent(
+                    inventory.getProduct().getId(), inventory.getWarehouse().getId(), stock - originalStock.get(key)));
+        });
+        accepted.forEach(this::publishMovementRecorded);
+
+        result.setCommitted(true);
+        result.setSuccessCount(accepted.size());
+        result.setFailureCount(failures);
+        return new BatchRun(result, movementsByIndex, errorsByIndex);
+    }
+
+    /**
+     * Filas de inventario que el lote crea. Otra transacción puede crear la misma fila a la vez, así que
+     * no se inserta el stock final: se asegura la fila y se suma el stock del lote con un UPDATE atómico.
+     * El lote se validó partiendo de 0, así que sumarlo a otro stock nunca queda en negativo. Las filas se
+     * crean en orden de producto y almacén, el mismo que usan las transferencias.
+     */
+    private void createInventories(Map<String, Integer> stockByKey, Map<String, Inventory> inventories) {
+        if (stockByKey.isEmpty()) {
+            return;
+        }
+        List<Object[]> ensureArgs = new ArrayList<>(stockByKey.size());
+        List<Object[]> increaseArgs = new ArrayList<>(stockByKey.size());
+        stockByKey.keySet().stream()
+                .map(inventories::get)
+                .sorted(Comparator.comparing((Inventory i) -> i.getProduct().getId())
+                        .thenComparing(i -> i.getWarehouse().getId()))
+                .forEach(inventory -> {
+                    Long productId = inventory.getProduct().getId();
+                    Long warehouseId = inventory.getWarehouse().getId();
+                    ensureArgs.add(new Object[]{productId, warehouseId, productId, warehouseId});
+                    increaseArgs.add(new Object[]{stockByKey.get(inventoryKey(productId, warehouseId)),
+                            productId, warehouseId});
+                });
+        jdbcTemplate.batchUpdate(ENSURE_INVENTORY_SQL, ensureArgs);
+        jdbcTemplate.batchUpdate(INCREASE_INVENTORY_SQL, increaseArgs);
+    }
+
+    private List<Long> insertMovementsBatch(List<InventoryMovement> movements) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_MOVEMENT_SQL, new String[]{"id_movimiento"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        InventoryMovement m = movements.get(i);
+                        ps.setObject(1, m.getMovementDate());
+                        ps.setString(2, m.getMovementType());
+                        ps.setInt(3, m.getQuantity());
+                        ps.setString(4, m.getMotive());
+                        ps.setString(5, m.getTransferReference());
+                        ps.setLong(6, m.getProduct().getId());
+                        ps.setLong(7, m.getWarehouse().getId());
+                        ps.setLong(8, m.getUser().getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return movements.size();
+                    }
+                },
+                keyHolder);
+
+        List<Long> ids = new ArrayList<>(movements.size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.get("id_movimiento")).longValue());
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            movements.get(i).setId(ids.get(i));
+        }
+        return ids;
+    }
+
+    private static Set<Long> collectIds(Collection<MovementDto> items, Function<MovementDto, Long> idGetter) {
+        return items.stream().map(idGetter).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+
+    private static String inventoryKey(Long productId, Long warehouseId) {
+        return productId + ":" + warehouseId;
     }
 }
@@ -0,0 +1,284 @@
+package com.stockmaster.backend.service;
+
+import com.stockmaster.backend.dto.MovementDto;
+import com.stockmaster.backend.entity.InventoryMovement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Escritura diferida de entradas y salidas con commit agrupado (movements.write-behind.enabled=true).
+ *
+ * Cada petición deja su movimiento en una cola acotada y espera. Un único hilo escritor vacía la cola
+ * en grupos de hasta max-group-size movimientos y registra cada grupo con
+ * InventoryMovementService.registerJournalGroup: un SELECT ... FOR UPDATE, un batch de movimientos y
+ * un solo commit para todo el grupo. La petición recibe su movimiento (o su error de validación)
+ * cuando el grupo ya está confirmado, así que la respuesta sigue siendo durable.
+ *
+ * Si la cola no admite el movimiento en enqueue-timeout-ms se lanza MovementJournalFullException
+ * (503) sin registrar nada: la contrapresión llega al cliente en lugar de acumular memoria. La espera de
+ * la confirmación también está acotada (ack-timeout-ms), y si el escritor falla de forma inesperada se
+ * responde con error a todos los movimientos pendientes, así ninguna petición queda bloqueada.
+ */
+@Service
+@ConditionalOnProperty(name = "movements.write-behind.enabled", havingValue = "true")
+public class MovementJournal implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(MovementJournal.class);
+
+    private final InventoryMovementService movementService;
+    private final ArrayBlockingQueue<PendingMovement> queue;
+    private final int maxGroupSize;
+    private final long enqueueTimeoutMs;
+    private final long ackTimeoutMs;
+
+    // submit encola con el de lectura; stop toma el de escritura para que nada entre después de cerrar
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private Thread writer;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder groups = new LongAdder();
+    private final LongAdder committed = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    private record PendingMovement(MovementDto dto, CompletableFuture<MovementDto> ack) {
+    }
+
+    public MovementJournal(InventoryMovementService movementService,
+                           @Value("${movements.write-behind.queue-capacity:10000}") int queueCapacity,
+                           @Value("${movements.write-behind.max-group-size:500}") int maxGroupSize,
+                           @Value("${movements.write-behind.enqueue-timeout-ms:100}") long enqueueTimeoutMs,
+                           @Value("${movements.write-behind.ack-timeout-ms:30000}") long ackTimeoutMs) {
+        if (maxGroupSize < 1 || maxGroupSize > InventoryMovementService.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("movements.write-behind.max-group-size debe estar entre 1 y "
+                    + InventoryMovementService.MAX_BATCH_SIZE + ".");
+        }
+        this.movementService = movementService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxGroupSize = maxGroupSize;
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        this.ackTimeoutMs = ackTimeoutMs;
+    }
+
+    /**
+     * Encola una ENTRADA o SALIDA y espera a que su grupo se confirme. Devuelve el movimiento
+     * registrado o lanza la misma excepción que registerEntry/registerExit. Se responde con un DTO:
+     * la entidad se cargó en el hilo escritor y fuera de su sesión no se pueden recorrer sus relaciones.
+     */
+    public MovementDto submit(MovementDto dto, String type) {
+        if (dto.getQuantity() <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor a cero.");
+        }
+        dto.setMovementType(type);
+        PendingMovement pending = new PendingMovement(dto, new CompletableFuture<>());
+
+        boolean accepted = false;
+        acceptLock.readLock().lock();
+        try {
+            if (running) {
+                accepted = queue.offer(pending, enqueueTimeoutMs, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+        if (!accepted) {
+            rejected.increment();
+            throw new MovementJournalFullException("Cola de movimientos llena, intente nuevamente.");
+        }
+
+        try {
+            return pending.ack().get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw abandon(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw abandon(pending);
+        }
+    }
+
+    // Si todavía está en la cola se retira y no se registra; si ya está en un grupo, el resultado es incierto
+    private MovementJournalFullException abandon(PendingMovement pending) {
+        timedOut.increment();
+        if (queue.remove(pending)) {
+            return new MovementJournalFullException("El movimiento no se procesó a tiempo, intente nuevamente.");
+        }
+        return new MovementJournalFullException(
+                "El movimiento no se confirmó a tiempo. Verifique el historial antes de reintentar.");
+    }
+
+    // ── Hilo escritor ────────────────────────────────────────────────────────
+    private void drain() {
+        List<PendingMovement> group = new ArrayList<>(maxGroupSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                PendingMovement first;
+                try {
+                    first = queue.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    continue;
+                }
+                if (first == null) {
+                    continue;
+                }
+                // Lo que se acumuló mientras se confirmaba el grupo anterior va en el siguiente
+                group.add(first);
+                queue.drainTo(group, maxGroupSize - 1);
+                try {
+                    commit(group);
+                } catch (Throwable e) {
+                    // Error o excepción fuera del manejo por grupo: se responde a todo el grupo y el escritor sigue
+                    logger.error("Fallo inesperado al confirmar un grupo de {} movimientos", group.size(), e);
+                    fail(group);
+                }
+                group.clear();
+            }
+        } finally {
+            // Si el hilo termina por cualquier motivo, se deja de aceptar y nadie espera una confirmación
+            acceptLock.writeLock().lock();
+            try {
+                running = false;
+            } finally {
+                acceptLock.writeLock().unlock();
+            }
+            queue.drainTo(group);
+            fail(group);
+        }
+    }
+
+    // Sin efecto sobre los movimientos ya confirmados o rechazados
+    private void fail(List<PendingMovement> group) {
+        for (PendingMovement pending : group) {
+            pending.ack().completeExceptionally(new MovementJournalFullException(
+                    "No se pudo confirmar el movimiento. Verifique el historial antes de reintentar."));
+        }
+    }
+
+    private void commit(List<PendingMovement> group) {
+        List<InventoryMovementService.GroupItemOutcome> outcomes;
+        try {
+            outcomes = movementService.registerJournalGroup(group.stream().map(PendingMovement::dto).toList());
+        } catch (RuntimeException e) {
+            // Falló la transacción completa (no un ítem): se registra cada movimiento por separado
+            logger.warn("No se pudo confirmar un grupo de {} movimientos, se registran uno a uno: {}",
+                    group.size(), e.getMessage());
+            group.forEach(this::commitAlone);
+            return;
+        }
+        groups.increment();
+        for (int i = 0; i < group.size(); i++) {
+            InventoryMovementService.GroupItemOutcome outcome = outcomes.get(i);
+            if (outcome.error() != null) {
+                group.get(i).ack().completeExceptionally(outcome.error());
+            } else {
+                committed.increment();
+                group.get(i).ack().complete(toAck(outcome.movement()));
+            }
+        }
+    }
+
+    private void commitAlone(PendingMovement pending) {
+        fallbacks.increment();
+        try {
+            InventoryMovement movement = "ENTRADA".equals(pending.dto().getMovementType())
+                    ? movementService.registerEntry(pending.dto())
+                    : movementService.registerExit(pending.dto());
+            committed.increment();
+            pending.ack().complete(toAck(movement));
+        } catch (RuntimeException e) {
+            pending.ack().completeExceptionally(e);
+        }
+    }
+
+    private static MovementDto toAck(InventoryMovement m) {
+        return new MovementDto(m.getProduct().getId(), m.getWarehouse().getId(), m.getQuantity(), m.getUser().getId(),
+                m.getId(), m.getMovementType(), m.getMotive(), m.getTransferReference(), m.getMovementDate(),
+                m.getProduct().getName(), m.getWarehouse().getName(), m.getUser().getName());
+    }
+
+    // ── Ciclo de vida ────────────────────────────────────────────────────────
+    @Override
+    public void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("movement-journal").daemon(true).start(this::drain);
+    }
+
+    // Deja de aceptar movimientos y espera a que el escritor confirme lo que queda en la cola
+    @Override
+    public void stop() {
+        acceptLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Fase menor que la del servidor web: arranca antes y se detiene después de que termine
+    // el apagado ordenado de las peticiones en curso
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    // ── Métricas ─────────────────────────────────────────────────────────────
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public int getQueueCapacity() {
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getGroupCount() {
+        return groups.sum();
+    }
+
+    public long getCommittedCount() {
+        return committed.sum();
+    }
+
+    public long getFallbackCount() {
+        return fallbacks.sum();
+    }
+
+    public long getTimedOutCount() {
+        return timedOut.sum();
+    }
+}
@@ -0,0 +1,14 @@
+package com.stockmaster.backend.service;
+
+/**
+ * MovementJournal no pudo atender el movimiento: la cola no lo admitió a tiempo (llena o deteniéndose),
+ * su grupo no se confirmó en ack-timeout-ms o el hilo escritor falló. Los controladores responden 503.
+ * Si el movimiento no llegó a salir de la cola no se registró nada; si no, el mensaje pide revisar el
+ * historial antes de reintentar.
+ */
+public class MovementJournalFullException extends RuntimeException {
+
+    public MovementJournalFullException(String message) {
+        super(message);
+    }
+}
@@ -1,25 +1,43 @@
 package com.stockmaster.backend.service;
 
+import com.stockmaster.backend.config.CacheConfig;
+import com.stockmaster.backend.dto.MovementDto;
 import com.stockmaster.backend.dto.ProductDto;
 import com.stockmaster.backend.dto.ProductListDto;
+import com.stockmaster.backend.dto.ProductPageDto;
 import com.stockmaster.backend.dto.SupplierListDto;
 import com.stockmaster.backend.entity.Category;
 import com.stockmaster.backend.entity.Inventory;
 import com.stockmaster.backend.entity.Product;
 import com.stockmaster.backend.entity.Supplier;
+import com.stockmaster.backend.entity.User;
 import com.stockmaster.backend.entity.Warehouse;
+import com.stockmaster.backend.event.ActiveCountChangedEvent;
+import com.stockmaster.backend.event.StockChangedEvent;
 import com.stockmaster.backend.repository.CategoryRepository;
 import com.stockmaster.backend.repository.InventoryRepository;
 import com.stockmaster.backend.repository.ProductRepository;
 import com.stockmaster.backend.repository.SupplierRepository;
+import com.stockmaster.backend.repository.UserRepository;
 import com.stockmaster.backend.repository.WarehouseRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -31,13 +49,27 @@ public class ProductService {
     @Autowired private WarehouseRepository warehouseRepository;
     @Autowired private InventoryRepository inventoryRepository;
     @Autowired private SupplierRepository supplierRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private InventoryMovementService movementService;
+    @Autowired private ApplicationEventPublisher eventPublisher;
 
+    // Atributos de Product por los que se permite ordenar el listado paginado
+    private static final Set<String> SORTABLE_FIELDS = Set.of("id", "name", "sku", "price");
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // Los listados de categorías y proveedores incluyen el número de productos activos
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORY_LIST, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ACTIVE_SUPPLIER_LIST, allEntries = true)})
     public Product createProduct(ProductDto productDto) {
         if (productDto.getName() == null || productDto.getName().isEmpty() ||
                 productDto.getWarehouseId() == null) {
             throw new IllegalArgumentException("Los campos de nombre y almacén son obligatorios.");
         }
+        if (productDto.getInitialQuantity() < 0) {
+            throw new IllegalArgumentException("La cantidad inicial no puede ser negativa.");
+        }
         if (productRepository.findByName(productDto.getName()).isPresent()) {
             throw new IllegalArgumentException("Ya existe un producto con este nombre.");
         }
@@ -62,35 +94,63 @@ public class ProductService {
         Inventory initialInventory = new Inventory();
         initialInventory.setProduct(savedProduct);
         initialInventory.setWarehouse(warehouse);
-        initialInventory.setCurrentStock(productDto.getInitialQuantity());
+        initialInventory.setCurrentStock(0);
         initialInventory.setMinStock(productDto.getMinStock());
         inventoryRepository.save(initialInventory);
 
+        eventPublisher.publishEvent(new ActiveCountChangedEvent(ActiveCountChangedEvent.PRODUCT, 1));
+        eventPublisher.publishEvent(new StockChangedEvent(savedProduct.getId(), warehouse.getId(), 0));
+
+        // El stock inicial entra como una ENTRADA más, para que el libro de movimientos cuadre con INVENTARIO
+        if (productDto.getInitialQuantity() > 0) {
+            MovementDto entry = new MovementDto();
+            entry.setProductId(savedProduct.getId());
+            entry.setWarehouseId(warehouse.getId());
+            entry.setQuantity(productDto.getInitialQuantity());
+            entry.setUserId(currentUser().getId());
+            entry.setMotive("Stock inicial");
+            movementService.registerEntry(entry);
+        }
         return savedProduct;
     }
 
     public List<ProductListDto> getAllProducts() {
-        List<Object[]> results = productRepository.findAllProductsWithTotalStock();
-        return results.stream().map(result -> {
-            ProductListDto dto = new ProductListDto();
-            dto.setId((Long) result[0]);
-            dto.setName((String) result[1]);
-            dto.setDescription((String) result[2]);
-            dto.setPrice((Double) result[3]);
-            dto.setSku((String) result[4]);
-            dto.setCategoryName((String) result[5]);
-            Long totalStockLong = (Long) result[6];
-            dto.setTotalStock(totalStockLong != null ? totalStockLong.intValue() : 0);
-            if (result.length > 7 && result[7] != null) {
-                dto.setCategoryId((Long) result[7]);
+        List<ProductListDto> products = productRepository.findAllProductsWithTotalStock().stream()
+                .map(this::toListDto)
+                .collect(Collectors.toList());
+        // HU-PI2-01: proveedores de todos los productos activos en una sola consulta
+        attachSuppliers(products, productRepository.findSupplierPairsOfActiveProducts());
+        return products;
+    }
+
+    // Listado paginado y ordenado en el servidor: dos consultas por página (datos + proveedores) y el COUNT
+    public ProductPageDto getProductsPage(Pageable pageable) {
+        if (pageable.getPageSize() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("El tamaño de página no puede superar " + MAX_PAGE_SIZE + ".");
+        }
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE_FIELDS.contains(order.getProperty())) {
+                throw new IllegalArgumentException("No se puede ordenar por '" + order.getProperty()
+                        + "'. Campos permitidos: " + SORTABLE_FIELDS + ".");
             }
-            // HU-PI2-01: cargar proveedores del producto
-            dto.setSuppliers(loadSuppliers((Long) result[0]));
-            return dto;
-        }).collect(Collectors.toList());
+        }
+
+        Page<Object[]> page = productRepository.findAllProductsWithTotalStock(pageable);
+        List<ProductListDto> products = page.getContent().stream()
+                .map(this::toListDto)
+                .collect(Collectors.toList());
+        if (!products.isEmpty()) {
+            List<Long> ids = products.stream().map(ProductListDto::getId).collect(Collectors.toList());
+            attachSuppliers(products, productRepository.findSupplierPairsByProductIds(ids));
+        }
+        return new ProductPageDto(products, page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages());
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORY_LIST, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ACTIVE_SUPPLIER_LIST, allEntries = true)})
     public Product updateProduct(Long id, ProductDto productDto) {
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con ID: " + id));
@@ -109,15 +169,22 @@ public class ProductService {
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORY_LIST, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ACTIVE_SUPPLIER_LIST, allEntries = true)})
     public void deleteProduct(Long id) {
         Product productToDelete = productRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con ID: " + id));
         productToDelete.setDeletedAt(LocalDateTime.now());
         productToDelete.setActive(false);
         productRepository.save(productToDelete);
+        eventPublisher.publishEvent(new ActiveCountChangedEvent(ActiveCountChangedEvent.PRODUCT, -1));
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORY_LIST, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ACTIVE_SUPPLIER_LIST, allEntries = true)})
     public void restoreProduct(Long id) {
         Product productToRestore = productRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con ID: " + id));
@@ -127,6 +194,7 @@ public class ProductService {
         productToRestore.setDeletedAt(null);
         productToRestore.setActive(true);
         productRepository.save(productToRestore);
+        eventPublisher.publishEvent(new ActiveCountChangedEvent(ActiveCountChangedEvent.PRODUCT, 1));
     }
 
     public List<ProductListDto> getAllInactiveProducts() {
@@ -150,6 +218,15 @@ public class ProductService {
 
     // ── Métodos privados de soporte ──────────────────────────────────────────
 
+    private User currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new IllegalArgumentException("Se requiere un usuario autenticado para registrar el stock inicial.");
+        }
+        return userRepository.findByEmailAndIsActive(authentication.getName(), true)
+                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado o inactivo."));
+    }
+
     private Category resolveCategory(ProductDto dto) {
         if (dto.getCategoryId() != null) {
             return categoryRepository.findById(dto.getCategoryId())
@@ -184,21 +261,38 @@ public class ProductService {
         return suppliers;
     }
 
-    // HU-PI2-01: cargar proveedores de un producto para el DTO de listado
-    private List<SupplierListDto> loadSuppliers(Long productId) {
-        return productRepository.findById(productId)
-                .map(p -> p.getSuppliers().stream().map(s -> {
-                    SupplierListDto dto = new SupplierListDto();
-                    dto.setId(s.getId());
-                    dto.setName(s.getName());
-                    dto.setNit(s.getNit());
-                    dto.setPhone(s.getPhone());
-                    dto.setEmail(s.getEmail());
-                    dto.setAddress(s.getAddress());
-                    dto.setActive(s.isActive());
-                    return dto;
-                }).collect(Collectors.toList()))
-                .orElse(List.of());
+    private ProductListDto toListDto(Object[] result) {
+        ProductListDto dto = new ProductListDto();
+        dto.setId((Long) result[0]);
+        dto.setName((String) result[1]);
+        dto.setDescription((String) result[2]);
+        dto.setPrice((Double) result[3]);
+        dto.setSku((String) result[4]);
+        dto.setCategoryName((String) result[5]);
+        Long totalStockLong = (Long) result[6];
+        dto.setTotalStock(totalStockLong != null ? totalStockLong.intValue() : 0);
+        if (result.length > 7 && result[7] != null) {
+            dto.setCategoryId((Long) result[7]);
+        }
+        return dto;
+    }
+
+    // HU-PI2-01: agrupa en memoria los pares (id_producto, proveedor) y los asigna a cada DTO
+    private void attachSuppliers(List<ProductListDto> products, List<Object[]> supplierPairs) {
+        Map<Long, List<SupplierListDto>> suppliersByProduct = new HashMap<>();
+        for (Object[] pair : supplierPairs) {
+            Supplier s = (Supplier) pair[1];
+            SupplierListDto dto = new SupplierListDto();
+            dto.setId(s.getId());
+            dto.setName(s.getName());
+            dto.setNit(s.getNit());
+            dto.setPhone(s.getPhone());
+            dto.setEmail(s.getEmail());
+            dto.setAddress(s.getAddress());
+            dto.setActive(s.isActive());
+            suppliersByProduct.computeIfAbsent((Long) pair[0], id -> new ArrayList<>()).add(dto);
+        }
+        products.forEach(p -> p.setSuppliers(suppliersByProduct.getOrDefault(p.getId(), List.of())));
     }
 
     private String generateSku(String productName) {
@@ -1,21 +1,32 @@
 package com.stockmaster.backend.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stockmaster.backend.dto.MovementReportDto;
 import com.stockmaster.backend.dto.SalesReportDto;
 import com.stockmaster.backend.dto.StockReportDto;
-import com.stockmaster.backend.entity.InventoryMovement;
+import com.stockmaster.backend.repository.DailySalesRollupRepository;
 import com.stockmaster.backend.repository.InventoryMovementRepository;
 import com.stockmaster.backend.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.stockmaster.backend.entity.Inventory;
 import com.stockmaster.backend.repository.InventoryRepository;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.LocalDate; // Import necesario para LocalDate
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ReportService {
@@ -27,29 +38,22 @@ public class ReportService {
 
     @Autowired
     private InventoryRepository inventoryRepository;
+    @Autowired
+    private DailySalesRollupRepository dailySalesRollupRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
 
-    // HU14: Reporte de Stock Bajo
-    public List<StockReportDto> getLowStockReport() {
-        List<Inventory> lowStockItems = inventoryRepository.findItemsWithLowStock();
-
-        return lowStockItems.stream()
-                .map(inventory -> {
-                    StockReportDto dto = new StockReportDto();
-
-                    // 1. Datos de Producto
-                    dto.setProductId(inventory.getProduct().getId());
-                    dto.setProductName(inventory.getProduct().getName());
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
 
-                    // 2. Datos de Almacén
-                    dto.setWarehouseName(inventory.getWarehouse().getName());
+    private static final String CSV_HEADER = "fecha,producto,tipo,cantidad,almacen,usuario\n";
 
-                    // 3. Datos de Stock (Usando nombres de campo corregidos en el DTO)
-                    dto.setCurrentStock(inventory.getCurrentStock());
-                    dto.setMinimumStock(inventory.getMinStock());
+    // Sin fecha de inicio, el reporte cubre todo el histórico acumulado
+    private static final LocalDate SALES_REPORT_MIN_DATE = LocalDate.of(2000, 1, 1);
 
-                    return dto;
-                })
-                .collect(Collectors.toList());
+    // HU14: Reporte de Stock Bajo (una consulta indexada por bajo_stock, sin cargas perezosas por fila)
+    public List<StockReportDto> getLowStockReport() {
+        return inventoryRepository.findLowStockReport();
     }
 
     // HU15: Reporte de Movimientos por Fecha
@@ -61,39 +65,85 @@ public class ReportService {
         // Fecha de fin: Final del día (23:59:59)
         LocalDateTime finalEndDate = endDate.atTime(23, 59, 59);
 
-        List<InventoryMovement> movements = inventoryMovementRepository.findByMovementDateBetweenOrderByMovementDateAsc(finalStartDate, finalEndDate);
-
-        return movements.stream()
-                .map(m -> {
-                    MovementReportDto dto = new MovementReportDto();
-                    dto.setMovementDate(m.getMovementDate());
-                    dto.setProductName(m.getProduct().getName());
-                    dto.setMovementType(m.getMovementType());
-                    dto.setQuantity(m.getQuantity());
-                    dto.setWarehouseName(m.getWarehouse().getName());
-                    //dto.setTransferReference(m.getTransferReference());
-                    dto.setUserName(m.getUser().getName());
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return inventoryMovementRepository.findMovementReport(finalStartDate, finalEndDate);
+    }
+
+    /**
+     * HU15: exportación del reporte de movimientos escrita fila a fila sobre la salida.
+     * La consulta se recorre con un cursor de solo avance, así la memoria no crece con el rango.
+     */
+    @Transactional(readOnly = true)
+    public void exportMovementReport(LocalDate startDate, LocalDate endDate, String format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        boolean csv = FORMAT_CSV.equals(format);
+        if (csv) {
+            writer.write(CSV_HEADER);
+        }
+
+        try (Stream<MovementReportDto> rows = inventoryMovementRepository.streamMovementReport(
+                startDate.atStartOfDay(), endDate.atTime(23, 59, 59))) {
+            Iterator<MovementReportDto> it = rows.iterator();
+            while (it.hasNext()) {
+                MovementReportDto row = it.next();
+                if (csv) {
+                    writeCsvRow(writer, row);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeCsvRow(Writer writer, MovementReportDto row) throws IOException {
+        writer.write(csvField(String.valueOf(row.getMovementDate())));
+        writer.write(',');
+        writer.write(csvField(row.getProductName()));
+        writer.write(',');
+        writer.write(csvField(row.getMovementType()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getQuantity()));
+        writer.write(',');
+        writer.write(csvField(row.getWarehouseName()));
+        writer.write(',');
+        writer.write(csvField(row.getUserName()));
+        writer.write('\n');
     }
 
-    // HU16: Reporte de Productos Más Vendidos
-    public List<SalesReportDto> getMostSoldProductsReport() {
-        // Asumo que findMostSoldProductsWithRevenueAndAveragePrice devuelve 5 campos, como corregimos anteriormente
-        List<Object[]> results = inventoryMovementRepository.findMostSoldProductsWithRevenueAndAveragePrice();
+    // RFC 4180: se entrecomillan los campos con separadores, comillas o saltos de línea
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
 
-        return results.stream()
+    // HU16: Reporte de Productos Más Vendidos, leído del acumulado diario VENTA_DIARIA
+    public List<SalesReportDto> getMostSoldProductsReport(LocalDate startDate, LocalDate endDate, Integer top) {
+        LocalDate from = startDate != null ? startDate : SALES_REPORT_MIN_DATE;
+        LocalDate to = endDate != null ? endDate : LocalDate.now();
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("La fecha de inicio no puede ser posterior a la fecha de fin.");
+        }
+        if (top != null && top < 1) {
+            throw new IllegalArgumentException("El parámetro top debe ser mayor que cero.");
+        }
+        Pageable limit = top != null ? PageRequest.of(0, top) : Pageable.unpaged();
+
+        return dailySalesRollupRepository.findMostSoldProducts(from, to, limit).stream()
                 .map(result -> {
                     SalesReportDto dto = new SalesReportDto();
                     dto.setProductId((Long) result[0]);
                     dto.setProductName((String) result[1]);
                     dto.setUnitsSold((Long) result[2]);
                     dto.setTotalRevenue((Double) result[3]);
-                    // Mapeamos el quinto campo (índice 4)
                     dto.setAveragePrice((Double) result[4]);
                     return dto;
                 })
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
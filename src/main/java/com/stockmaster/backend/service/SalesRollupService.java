@@ -0,0 +1,109 @@
+package com.stockmaster.backend.service;
+
+import com.stockmaster.backend.entity.InventoryMovement;
+import com.stockmaster.backend.repository.DailySalesRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HU16: mantiene VENTA_DIARIA al registrar salidas, dentro de la misma transacción del movimiento,
+ * para que el reporte de más vendidos no tenga que recorrer todo MOVIMIENTO_INVENTARIO.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO venta_diaria (fecha, id_producto, id_almacen, unidades_vendidas, ingresos) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (fecha, id_producto, id_almacen) DO UPDATE SET " +
+            "unidades_vendidas = venta_diaria.unidades_vendidas + EXCLUDED.unidades_vendidas, " +
+            "ingresos = venta_diaria.ingresos + EXCLUDED.ingresos";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DailySalesRollupRepository rollupRepository;
+
+    /**
+     * Suma al acumulado diario las ventas recibidas. Se ignoran entradas, ajustes y las salidas
+     * de transferencias (no son ventas). Las filas se agrupan antes de escribir, así un lote
+     * produce un solo upsert por (día, producto, almacén).
+     */
+    public void recordSales(Collection<InventoryMovement> movements) {
+        Map<String, SaleDelta> deltas = new LinkedHashMap<>();
+        for (InventoryMovement m : movements) {
+            if (!"SALIDA".equals(m.getMovementType()) || m.getTransferReference() != null) {
+                continue;
+            }
+            LocalDate day = m.getMovementDate().toLocalDate();
+            Long productId = m.getProduct().getId();
+            Long warehouseId = m.getWarehouse().getId();
+            SaleDelta delta = deltas.computeIfAbsent(day + ":" + productId + ":" + warehouseId,
+                    key -> new SaleDelta(day, productId, warehouseId));
+            delta.units += m.getQuantity();
+            delta.revenue += m.getQuantity() * m.getProduct().getPrice();
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (SaleDelta d : deltas.values()) {
+            rows.add(new Object[]{Date.valueOf(d.day), d.productId, d.warehouseId, d.units, d.revenue});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    /**
+     * Reconstrucción del acumulado desde MOVIMIENTO_INVENTARIO. Los días anteriores a hoy ya no reciben ventas
+     * en vivo: se borran y se recalculan enteros, así también se corrigen los que solo se registraron en parte
+     * (el día de la puesta en marcha o tras un fallo del registro en vivo). Del día de hoy en adelante solo se
+     * borran las filas sin ventas que las respalden y se insertan las que falten, sin pisar las que siguen
+     * sumándose en vivo. Devuelve las filas insertadas.
+     */
+    @Transactional
+    public int backfill(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("La fecha de inicio no puede ser posterior a la fecha de fin.");
+        }
+        LocalDate today = LocalDate.now();
+        int inserted = 0;
+
+        LocalDate lastClosedDay = endDate.isBefore(today) ? endDate : today.minusDays(1);
+        if (!startDate.isAfter(lastClosedDay)) {
+            rollupRepository.deleteRange(startDate, lastClosedDay);
+            inserted += rollupRepository.backfill(startDate.atStartOfDay(), lastClosedDay.plusDays(1).atStartOfDay());
+        }
+
+        if (!endDate.isBefore(today)) {
+            LocalDate openFrom = startDate.isAfter(today) ? startDate : today;
+            rollupRepository.deleteStale(openFrom, endDate);
+            inserted += rollupRepository.backfill(openFrom.atStartOfDay(), endDate.plusDays(1).atStartOfDay());
+        }
+        return inserted;
+    }
+
+    private static class SaleDelta {
+        final LocalDate day;
+        final Long productId;
+        final Long warehouseId;
+        long units;
+        double revenue;
+
+        SaleDelta(LocalDate day, Long productId, Long warehouseId) {
+            this.day = day;
+            this.productId = productId;
+            this.warehouseId = warehouseId;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.stockmaster.backend.service;
+
+import com.stockmaster.backend.dto.HistoricalStockLineDto;
+import com.stockmaster.backend.dto.HistoricalWarehouseStockDto;
+import com.stockmaster.backend.dto.StockDriftDto;
+import com.stockmaster.backend.entity.StockCheckpoint;
+import com.stockmaster.backend.entity.Warehouse;
+import com.stockmaster.backend.repository.ProductRepository;
+import com.stockmaster.backend.repository.StockCheckpointRepository;
+import com.stockmaster.backend.repository.WarehouseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MOVIMIENTO_INVENTARIO como libro de solo inserción, con cortes diarios de stock.
+ *
+ * - Un trigger (migración V1) rechaza UPDATE y DELETE sobre MOVIMIENTO_INVENTARIO: el historial no se
+ *   corrige, se compensa con un ajuste.
+ * - Cada día (stock.ledger.checkpoint-cron) se crea el corte de las 00:00 en CORTE_STOCK/SNAPSHOT_STOCK a partir
+ *   del corte anterior más los movimientos del día, sin recorrer todo el historial. El corte se toma con
+ *   stock.ledger.grace-minutes de margen para que las transacciones en curso a medianoche ya estén confirmadas.
+ * - Cada stock.ledger.full-checkpoint-days el corte es completo (todos los pares con stock); los demás son
+ *   incrementales y solo guardan los pares que cambiaron ese día. El valor de un par en un corte es el de su
+ *   fila más reciente entre el último corte completo y ese corte (idx_snapshot_stock_almacen_producto_corte).
+ *   Los id_corte crecen con la fecha de corte: los cortes solo se añaden después del último.
+ * - El stock en una fecha es el del último corte que no la supera más la cola de movimientos posteriores,
+ *   leída por idx_movimiento_producto_almacen_fecha (un par) o idx_movimiento_almacen_fecha (todo un almacén).
+ *   Como mucho se recorre un día de movimientos, sea cual sea el tamaño del historial.
+ * - La verificación (stock.ledger.verify-interval-ms) compara INVENTARIO con el último corte más la cola,
+ *   en una sola sentencia para que ambos lados se lean de la misma instantánea.
+ */
+@Service
+public class StockLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockLedgerService.class);
+
+    // Signo de cada tipo de movimiento; las transferencias son una SALIDA y una ENTRADA
+    static final String SIGNED_QUANTITY =
+            "CASE WHEN m.tipo_movimiento IN ('ENTRADA', 'AJUSTE_POSITIVO') THEN m.cantidad ELSE -m.cantidad END";
+
+    // Valor de cada par en un corte: su fila más reciente entre el último corte completo y ese corte
+    private static final String RESOLVED_PAIRS_SQL =
+            "SELECT DISTINCT ON (s.id_almacen, s.id_producto) s.id_producto, s.id_almacen, s.stock " +
+            "FROM snapshot_stock s WHERE s.id_corte BETWEEN ? AND ? " +
+            "ORDER BY s.id_almacen, s.id_producto, s.id_corte DESC";
+
+    // Corte completo = corte anterior + movimientos en [corte anterior, corte nuevo)
+    private static final String BUILD_FULL_SNAPSHOT_SQL =
+            "INSERT INTO snapshot_stock (id_corte, id_producto, id_almacen, stock) " +
+            "SELECT ?, id_producto, id_almacen, SUM(stock) FROM (" +
+            "  SELECT r.id_producto, r.id_almacen, r.stock FROM (" + RESOLVED_PAIRS_SQL + ") r " +
+            "  UNION ALL " +
+            "  SELECT m.id_producto, m.id_almacen, " + SIGNED_QUANTITY + " FROM movimiento_inventario m " +
+            "  WHERE m.fecha_movimiento >= ? AND m.fecha_movimiento < ?" +
+            ") t GROUP BY id_producto, id_almacen HAVING SUM(stock) <> 0";
+
+    // Corte incremental = solo los pares con movimientos netos en [corte anterior, corte nuevo), sobre su valor
+    // en el corte anterior. Se guardan aunque queden en 0: la fila tapa un valor anterior distinto de cero
+    private static final String BUILD_DELTA_SNAPSHOT_SQL =
+            "INSERT INTO snapshot_stock (id_corte, id_producto, id_almacen, stock) " +
+            "SELECT ?, d.id_producto, d.id_almacen, COALESCE(r.stock, 0) + d.cambio FROM (" +
+            "  SELECT m.id_producto, m.id_almacen, SUM(" + SIGNED_QUANTITY + ") AS cambio " +
+            "  FROM movimiento_inventario m WHERE m.fecha_movimiento >= ? AND m.fecha_movimiento < ? " +
+            "  GROUP BY m.id_producto, m.id_almacen HAVING SUM(" + SIGNED_QUANTITY + ") <> 0" +
+            ") d LEFT JOIN LATERAL (" +
+            "  SELECT s.stock FROM snapshot_stock s " +
+            "  WHERE s.id_almacen = d.id_almacen AND s.id_producto = d.id_producto AND s.id_corte BETWEEN ? AND ? " +
+            "  ORDER BY s.id_corte DESC LIMIT 1" +
+            ") r ON true";
+
+    private static final String STOCK_AT_SQL =
+            "SELECT COALESCE((SELECT s.stock FROM snapshot_stock s " +
+            "                 WHERE s.id_almacen = ? AND s.id_producto = ? AND s.id_corte BETWEEN ? AND ? " +
+            "                 ORDER BY s.id_corte DESC LIMIT 1), 0) " +
+            "     + COALESCE((SELECT SUM(" + SIGNED_QUANTITY + ") FROM movimiento_inventario m " +
+            "                 WHERE m.id_producto = ? AND m.id_almacen = ? " +
+            "                   AND m.fecha_movimiento >= ? AND m.fecha_movimiento <= ?), 0)";
+
+    private static final String WAREHOUSE_STOCK_AT_SQL =
+            "SELECT p.id_producto, p.sku, p.nombre_producto, l.stock, p.precio FROM (" +
+            "  SELECT id_producto, SUM(stock) AS stock FROM (" +
+            "    SELECT r.id_producto, r.stock FROM (" +
+            "      SELECT DISTINCT ON (s.id_producto) s.id_producto, s.stock FROM snapshot_stock s " +
+            "      WHERE s.id_almacen = ? AND s.id_corte BETWEEN ? AND ? ORDER BY s.id_producto, s.id_corte DESC" +
+            "    ) r " +
+            "    UNION ALL " +
+            "    SELECT m.id_producto, " + SIGNED_QUANTITY + " FROM movimiento_inventario m " +
+            "    WHERE m.id_almacen = ? AND m.fecha_movimiento >= ? AND m.fecha_movimiento <= ?" +
+            "  ) t GROUP BY id_producto HAVING SUM(stock) <> 0" +
+            ") l JOIN producto p ON p.id_producto = l.id_producto " +
+            "ORDER BY p.nombre_producto";
+
+    private static final String DRIFT_SQL =
+            "WITH libro AS (" +
+            "  SELECT id_producto, id_almacen, SUM(stock) AS stock FROM (" +
+            "    SELECT r.id_producto, r.id_almacen, r.stock FROM (" + RESOLVED_PAIRS_SQL + ") r " +
+            "    UNION ALL " +
+            "    SELECT m.id_producto, m.id_almacen, " + SIGNED_QUANTITY + " FROM movimiento_inventario m " +
+            "    WHERE m.fecha_movimiento >= ?" +
+            "  ) t GROUP BY id_producto, id_almacen) " +
+            "SELECT COALESCE(i.id_producto, l.id_producto), COALESCE(i.id_almacen, l.id_almacen), " +
+            "       COALESCE(i.stock_actual, 0), COALESCE(l.stock, 0) " +
+            "FROM inventario i FULL JOIN libro l ON l.id_producto = i.id_producto AND l.id_almacen = i.id_almacen " +
+            "WHERE COALESCE(i.stock_actual, 0) <> COALESCE(l.stock, 0) " +
+            "ORDER BY 1, 2";
+
+    // Límite inferior de la cola cuando todavía no hay ningún corte
+    private static final Timestamp LEDGER_START = Timestamp.valueOf("1900-01-01 00:00:00");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StockCheckpointRepository checkpointRepository;
+    private final ProductRepository productRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final Duration grace;
+    private final int fullCheckpointDays;
+
+    private final AtomicLong driftedPairs = new AtomicLong();
+    private volatile int lastDriftCount;
+
+    public StockLedgerService(JdbcTemplate jdbcTemplate,
+                              StockCheckpointRepository checkpointRepository,
+                              ProductRepository productRepository,
+                              WarehouseRepository warehouseRepository,
+                              @Value("${stock.ledger.grace-minutes:15}") long graceMinutes,
+                              @Value("${stock.ledger.full-checkpoint-days:7}") int fullCheckpointDays) {
+        if (fullCheckpointDays < 1) {
+            throw new IllegalArgumentException("stock.ledger.full-checkpoint-days debe ser al menos 1.");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.checkpointRepository = checkpointRepository;
+        this.productRepository = productRepository;
+        this.warehouseRepository = warehouseRepository;
+        this.grace = Duration.ofMinutes(graceMinutes);
+        this.fullCheckpointDays = fullCheckpointDays;
+    }
+
+    // ── Cortes ───────────────────────────────────────────────────────────────
+
+    /**
+     * Crea los cortes diarios que falten hasta el de hoy (o el de ayer, dentro del margen).
+     * Sin cortes previos empieza por el día siguiente al primer movimiento. Devuelve los cortes creados.
+     */
+    @Scheduled(cron = "${stock.ledger.checkpoint-cron:0 30 0 * * *}")
+    @Transactional
+    public int createMissingCheckpoints() {
+        LocalDateTime latestCutoff = LocalDateTime.now().minus(grace).toLocalDate().atStartOfDay();
+        StockCheckpoint previous = checkpointRepository.findTopByOrderByCutoffDesc().orElse(null);
+        StockCheckpoint base = previous != null
+                ? checkpointRepository.findTopByFullTrueAndCutoffLessThanEqualOrderByCutoffDesc(previous.getCutoff()).orElse(null)
+                : null;
+
+        LocalDateTime next;
+        if (previous != null) {
+            next = previous.getCutoff().plusDays(1);
+        } else {
+            Timestamp first = jdbcTemplate.queryForObject(
+                    "SELECT MIN(fecha_movimiento) FROM movimiento_inventario", Timestamp.class);
+            if (first == null) {
+                return 0;
+            }
+            next = first.toLocalDateTime().toLocalDate().plusDays(1).atStartOfDay();
+        }
+
+        int created = 0;
+        while (!next.isAfter(latestCutoff)) {
+            boolean full = base == null || !next.isBefore(base.getCutoff().plusDays(fullCheckpointDays));
+            previous = createCheckpoint(base, previous, next, full);
+            if (full) {
+                base = previous;
+            }
+            next = next.plusDays(1);
+            created++;
+        }
+        if (created > 0) {
+            logger.info("Cortes de stock creados: {} (último {}, {} pares)", created, previous.getCutoff(), previous.getPairs());
+        }
+        return created;
+    }
+
+    /**
+     * Borra y vuelve a generar todos los cortes. Necesario si se importan movimientos con fechas pasadas,
+     * que quedarían fuera de los cortes ya calculados.
+     */
+    @Transactional
+    public int rebuildCheckpoints() {
+        jdbcTemplate.update("DELETE FROM snapshot_stock");
+        jdbcTemplate.update("DELETE FROM corte_stock");
+        return createMissingCheckpoints();
+    }
+
+    // base: último corte completo hasta previous, desde el que se resuelven sus pares
+    private StockCheckpoint createCheckpoint(StockCheckpoint base, StockCheckpoint previous, LocalDateTime cutoff,
+                                             boolean full) {
+        StockCheckpoint checkpoint = new StockCheckpoint();
+        checkpoint.setCutoff(cutoff);
+        checkpoint.setFull(full);
+        checkpointRepository.save(checkpoint);
+
+        Long baseId = base != null ? base.getId() : null;
+        Long previousId = previous != null ? previous.getId() : null;
+        Timestamp from = previous != null ? Timestamp.valueOf(previous.getCutoff()) : LEDGER_START;
+        int pairs = full
+                ? jdbcTemplate.update(BUILD_FULL_SNAPSHOT_SQL, checkpoint.getId(), baseId, previousId, from,
+                        Timestamp.valueOf(cutoff))
+                : jdbcTemplate.update(BUILD_DELTA_SNAPSHOT_SQL, checkpoint.getId(), from, Timestamp.valueOf(cutoff),
+                        baseId, previousId);
+        checkpoint.setPairs(pairs);
+        return checkpoint;
+    }
+
+    // ── Stock en una fecha ───────────────────────────────────────────────────
+
+    /**
+     * Stock de un producto en un almacén en la fecha indicada, incluidos los movimientos de ese mismo instante.
+     * En REPEATABLE READ el corte elegido y sus filas salen de la misma instantánea aunque se regeneren a la vez.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public int getStockAt(Long productId, Long warehouseId, LocalDateTime at) {
+        if (!productRepository.existsById(productId)) {
+            throw new IllegalArgumentException("Producto no encontrado.");
+        }
+        if (!warehouseRepository.existsById(warehouseId)) {
+            throw new IllegalArgumentException("Almacén no encontrado.");
+        }
+        validatePast(at);
+
+        Optional<StockCheckpoint> checkpoint = checkpointRepository.findTopByCutoffLessThanEqualOrderByCutoffDesc(at);
+        Integer stock = jdbcTemplate.queryForObject(STOCK_AT_SQL, Integer.class,
+                warehouseId, productId, baseId(at), checkpoint.map(StockCheckpoint::getId).orElse(null),
+                productId, warehouseId, tailStart(checkpoint), Timestamp.valueOf(at));
+        return stock == null ? 0 : stock;
+    }
+
+    /**
+     * Stock de todos los productos con existencias en un almacén en la fecha indicada, con su valoración.
+     * La valoración usa el precio actual: PRODUCTO no guarda historial de precios.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public HistoricalWarehouseStockDto getWarehouseStockAt(Long warehouseId, LocalDateTime at) {
+        Warehouse warehouse = warehouseRepository.findById(warehouseId)
+                .orElseThrow(() -> new IllegalArgumentException("Almacén no encontrado."));
+        validatePast(at);
+
+        Optional<StockCheckpoint> checkpoint = checkpointRepository.findTopByCutoffLessThanEqualOrderByCutoffDesc(at);
+        List<HistoricalStockLineDto> items = jdbcTemplate.query(WAREHOUSE_STOCK_AT_SQL,
+                (rs, rowNum) -> {
+                    int stock = rs.getInt(4);
+                    double price = rs.getDouble(5);
+                    return new HistoricalStockLineDto(rs.getLong(1), rs.getString(2), rs.getString(3),
+                            stock, price, stock * price);
+                },
+                warehouseId, baseId(at), checkpoint.map(StockCheckpoint::getId).orElse(null),
+                warehouseId, tailStart(checkpoint), Timestamp.valueOf(at));
+
+        long totalUnits = 0;
+        double totalValue = 0;
+        for (HistoricalStockLineDto item : items) {
+            totalUnits += item.getStock();
+            totalValue += item.getValue();
+        }
+        return new HistoricalWarehouseStockDto(warehouse.getId(), warehouse.getName(), at,
+                checkpoint.map(StockCheckpoint::getCutoff).orElse(null), totalUnits, totalValue, items);
+    }
+
+    private static void validatePast(LocalDateTime at) {
+        if (at.isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("La fecha no puede ser posterior a la actual.");
+        }
+    }
+
+    // Último corte completo hasta la fecha: el del corte elegido, porque ese es el último hasta la fecha
+    private Long baseId(LocalDateTime at) {
+        return checkpointRepository.findTopByFullTrueAndCutoffLessThanEqualOrderByCutoffDesc(at)
+                .map(StockCheckpoint::getId).orElse(null);
+    }
+
+    private static Timestamp tailStart(Optional<StockCheckpoint> checkpoint) {
+        return checkpoint.map(c -> Timestamp.valueOf(c.getCutoff())).orElse(LEDGER_START);
+    }
+
+    // ── Verificación ─────────────────────────────────────────────────────────
+
+    @Scheduled(initialDelayString = "${stock.ledger.verify-interval-ms:3600000}",
+            fixedDelayString = "${stock.ledger.verify-interval-ms:3600000}")
+    public List<StockDriftDto> verify() {
+        Optional<StockCheckpoint> checkpoint = checkpointRepository.findTopByOrderByCutoffDesc();
+        List<StockDriftDto> drift = new ArrayList<>(jdbcTemplate.query(DRIFT_SQL,
+                (rs, rowNum) -> new StockDriftDto(rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getInt(4)),
+                checkpoint.map(c -> baseId(c.getCutoff())).orElse(null),
+                checkpoint.map(StockCheckpoint::getId).orElse(null), tailStart(checkpoint)));
+
+        lastDriftCount = drift.size();
+        if (!drift.isEmpty()) {
+            driftedPairs.addAndGet(drift.size());
+            logger.warn("Libro de movimientos: {} pares producto/almacén no cuadran con INVENTARIO, p. ej. {}",
+                    drift.size(), drift.subList(0, Math.min(drift.size(), 10)));
+        }
+        return drift;
+    }
+
+    // ── Métricas ─────────────────────────────────────────────────────────────
+    public int getLastDriftCount() {
+        return lastDriftCount;
+    }
+
+    public long getDriftedPairsCount() {
+        return driftedPairs.get();
+    }
+}
@@ -1,16 +1,18 @@
 package com.stockmaster.backend.service;
 
+import com.stockmaster.backend.config.CacheConfig;
 import com.stockmaster.backend.dto.SupplierDto;
 import com.stockmaster.backend.dto.SupplierListDto;
 import com.stockmaster.backend.entity.Supplier;
 import com.stockmaster.backend.repository.SupplierRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class SupplierService {
@@ -18,27 +20,22 @@ public class SupplierService {
     @Autowired
     private SupplierRepository supplierRepository;
 
+    @Cacheable(cacheNames = CacheConfig.ACTIVE_SUPPLIER_LIST, key = "'active'")
     public List<SupplierListDto> getAllActiveSuppliers() {
-        return supplierRepository.findByIsActiveTrue().stream()
-                .map(this::toListDto)
-                .collect(Collectors.toList());
+        return supplierRepository.findSupplierListByActive(true);
     }
 
     public List<SupplierListDto> getAllSuppliers() {
-        return supplierRepository.findAll().stream()
-                .map(this::toListDto)
-                .collect(Collectors.toList());
+        return supplierRepository.findSupplierList();
     }
 
     // Papelera: solo inactivos
     public List<SupplierListDto> getAllInactiveSuppliers() {
-        return supplierRepository.findAll().stream()
-                .filter(s -> !s.isActive())
-                .map(this::toListDto)
-                .collect(Collectors.toList());
+        return supplierRepository.findSupplierListByActive(false);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ACTIVE_SUPPLIER_LIST, allEntries = true)
     public SupplierListDto createSupplier(SupplierDto dto) {
         if (dto.getName() == null || dto.getName().isBlank()) {
             throw new IllegalArgumentException("El nombre del proveedor es obligatorio.");
@@ -64,6 +61,7 @@ public class SupplierService {
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ACTIVE_SUPPLIER_LIST, allEntries = true)
     public SupplierListDto updateSupplier(Long id, SupplierDto dto) {
         Supplier existing = supplierRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Proveedor no encontrado con ID: " + id));
@@ -94,6 +92,7 @@ public class SupplierService {
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ACTIVE_SUPPLIER_LIST, allEntries = true)
     public void deactivateSupplier(Long id) {
         Supplier supplier = supplierRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Proveedor no encontrado con ID: " + id));
@@ -107,6 +106,7 @@ public class SupplierService {
 
     // Papelera: restaurar proveedor inactivo
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ACTIVE_SUPPLIER_LIST, allEntries = true)
     public SupplierListDto restoreSupplier(Long id) {
         Supplier supplier = supplierRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Proveedor no encontrado con ID: " + id));
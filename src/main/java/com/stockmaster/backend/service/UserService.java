@@ -4,9 +4,11 @@ import com.stockmaster.backend.dto.ChangePasswordDto;
 import com.stockmaster.backend.dto.UserDto;
 import com.stockmaster.backend.dto.UserListDto;
 import com.stockmaster.backend.entity.User;
+import com.stockmaster.backend.event.ActiveCountChangedEvent;
 import com.stockmaster.backend.repository.UserRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -27,6 +29,8 @@ public class UserService implements UserDetailsService {
     private UserRepository userRepository;
     @Autowired
     private PasswordEncoder passwordEncoder;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     public User createUser(UserDto userDto) {
         // Validación de contraseña mínima
@@ -46,7 +50,10 @@ public class UserService implements UserDetailsService {
         user.setPassword(passwordEncoder.encode(userDto.getPassword()));
         user.setRole(userDto.getRole());
         user.setActive(true);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        // El Dashboard cuenta todos los usuarios registrados (el borrado es lógico)
+        eventPublisher.publishEvent(new ActiveCountChangedEvent(ActiveCountChangedEvent.USER, 1));
+        return saved;
     }
 
     public List<User> getAllUsers() {
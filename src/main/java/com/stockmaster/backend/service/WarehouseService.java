@@ -1,19 +1,31 @@
 package com.stockmaster.backend.service;
 
+import com.stockmaster.backend.config.CacheConfig;
 import com.stockmaster.backend.dto.ProductStockDto;
+import com.stockmaster.backend.dto.ProductStockPageDto;
 import com.stockmaster.backend.dto.WarehouseDto;
 import com.stockmaster.backend.dto.WarehouseListDto;
 import com.stockmaster.backend.dto.WarehouseSelectionDto;
 import com.stockmaster.backend.entity.Warehouse;
+import com.stockmaster.backend.event.ActiveCountChangedEvent;
 import com.stockmaster.backend.repository.InventoryRepository;
 import com.stockmaster.backend.repository.WarehouseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime; // 🟢 Importación necesaria para LocalDateTime
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class WarehouseService {
@@ -22,9 +34,12 @@ public class WarehouseService {
     private WarehouseRepository warehouseRepository;
     @Autowired
     private InventoryRepository inventoryRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     // HU12 - Registro de almacenes
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.WAREHOUSE_SELECTION, allEntries = true)
     public Warehouse createWarehouse(WarehouseDto dto) {
         if (dto.getName() == null || dto.getName().isEmpty()) {
             throw new IllegalArgumentException("El nombre del almacén es obligatorio.");
@@ -39,11 +54,14 @@ public class WarehouseService {
         warehouse.setCity(dto.getCity());
         warehouse.setDescription(dto.getDescription());
         warehouse.setActive(true);
-        return warehouseRepository.save(warehouse);
+        Warehouse saved = warehouseRepository.save(warehouse);
+        eventPublisher.publishEvent(new ActiveCountChangedEvent(ActiveCountChangedEvent.WAREHOUSE, 1));
+        return saved;
     }
 
     // HU11 - Actualización de almacenes
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.WAREHOUSE_SELECTION, allEntries = true)
     public Warehouse updateWarehouse(Long id, WarehouseDto dto) {
         Warehouse warehouse = warehouseRepository.findById(id)
                 .filter(Warehouse::isActive)
@@ -59,6 +77,7 @@ public class WarehouseService {
 
     // HU13 - Eliminación de almacenes
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.WAREHOUSE_SELECTION, allEntries = true)
     public void deleteWarehouse(Long id) {
         Warehouse warehouse = warehouseRepository.findById(id)
                 .filter(Warehouse::isActive)
@@ -75,13 +94,21 @@ public class WarehouseService {
 
         warehouse.setActive(false);
         warehouseRepository.save(warehouse);
+        eventPublisher.publishEvent(new ActiveCountChangedEvent(ActiveCountChangedEvent.WAREHOUSE, -1));
     }
 
-    // HU10 - Visualización de almacenes (Lista completa con stock total)
-    public List<WarehouseListDto> getAllWarehouses() {
+    /**
+     * HU10 — Visualización de almacenes: los almacenes activos con su stock total.
+     *
+     * @param includeProducts true para añadir el detalle por producto, obtenido con una única consulta
+     *                        recorrida en streaming y agrupada en memoria por almacén; false para devolver solo
+     *                        el resumen (el detalle se pide con getWarehouseProducts).
+     */
+    @Transactional(readOnly = true)
+    public List<WarehouseListDto> getAllWarehouses(boolean includeProducts) {
         List<Object[]> results = warehouseRepository.findAllActiveWarehousesWithTotalStock();
 
-        return results.stream()
+        List<WarehouseListDto> warehouses = results.stream()
                 .map(result -> {
                     WarehouseListDto dto = new WarehouseListDto();
                     dto.setId((Long) result[0]);
@@ -91,31 +118,40 @@ public class WarehouseService {
                     dto.setDescription((String) result[4]);
                     Long totalStockLong = (Long) result[5];
                     dto.setTotalStock(totalStockLong != null ? totalStockLong.intValue() : 0);
-
-                    // Obtener productos y stock específicos del almacén
-                    Warehouse warehouse = warehouseRepository.findById(dto.getId()).orElse(null);
-
-                    List<ProductStockDto> products = (warehouse != null)
-                            ? inventoryRepository.findByWarehouseAndCurrentStockGreaterThan(warehouse, 0)
-                            .stream()
-                            .map(inventory -> {
-                                ProductStockDto prodDto = new ProductStockDto();
-                                prodDto.setProductId(inventory.getProduct().getId());
-                                prodDto.setProductName(inventory.getProduct().getName());
-                                prodDto.setCurrentStock(inventory.getCurrentStock());
-                                prodDto.setMinStock(inventory.getMinStock());
-                                return prodDto;
-                            })
-                            .collect(Collectors.toList())
-                            : List.of();
-
-                    dto.setProducts(products);
                     return dto;
                 })
                 .collect(Collectors.toList());
+
+        if (!includeProducts) {
+            return warehouses;
+        }
+
+        Map<Long, List<ProductStockDto>> productsByWarehouse = new HashMap<>();
+        try (Stream<Object[]> rows = inventoryRepository.streamActiveWarehouseProductStock()) {
+            rows.forEach(row -> productsByWarehouse
+                    .computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                    .add(new ProductStockDto((Long) row[1], (String) row[2], (Integer) row[3], (Integer) row[4])));
+        }
+        warehouses.forEach(dto -> dto.setProducts(productsByWarehouse.getOrDefault(dto.getId(), List.of())));
+        return warehouses;
+    }
+
+    // HU10 - Detalle paginado de productos con stock de un almacén
+    @Transactional(readOnly = true)
+    public ProductStockPageDto getWarehouseProducts(Long warehouseId, int page, int size) {
+        if (page < 0 || size <= 0 || size > 500) {
+            throw new IllegalArgumentException("Parámetros de paginación inválidos (página >= 0, tamaño entre 1 y 500).");
+        }
+        if (!warehouseRepository.existsById(warehouseId)) {
+            throw new IllegalArgumentException("Almacén no encontrado.");
+        }
+        Page<ProductStockDto> products = inventoryRepository.findProductStockByWarehouseId(warehouseId, PageRequest.of(page, size));
+        return new ProductStockPageDto(warehouseId, products.getContent(), products.getNumber(), products.getSize(),
+                products.getTotalElements(), products.getTotalPages());
     }
 
     // Método para obtener almacenes activos para selección (lista simple)
+    @Cacheable(cacheNames = CacheConfig.WAREHOUSE_SELECTION, key = "'active'")
     public List<WarehouseSelectionDto> getActiveWarehousesForSelection() {
         return warehouseRepository.findActiveWarehousesForSelection()
                 .stream()
@@ -151,6 +187,7 @@ public class WarehouseService {
 
     // HU18. Restaurar Almacén
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.WAREHOUSE_SELECTION, allEntries = true)
     public void restoreWarehouse(Long id) {
         Warehouse warehouseToRestore = warehouseRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Almacén no encontrado."));
@@ -164,5 +201,6 @@ public class WarehouseService {
 
         warehouseToRestore.setActive(true);
         warehouseRepository.save(warehouseToRestore);
+        eventPublisher.publishEvent(new ActiveCountChangedEvent(ActiveCountChangedEvent.WAREHOUSE, 1));
     }
 }
\ No newline at end of file
@@ -1,10 +1,13 @@
 package com.stockmaster.backend.util;
 
+import com.stockmaster.backend.security.SecurityMetrics;
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,10 +20,14 @@ import java.util.List;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
     private final JwtUtil jwtUtil;
+    private final SecurityMetrics securityMetrics;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, SecurityMetrics securityMetrics) {
         this.jwtUtil = jwtUtil;
+        this.securityMetrics = securityMetrics;
     }
 
     @Override
@@ -31,12 +38,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = jwtUtil.getTokenFromRequest(request);
 
-        System.out.println("DEBUG: Token encontrado en request: " + (token != null));
+        logger.debug("Token encontrado en request: {}", token != null);
 
         if (token != null) {
-            if (jwtUtil.validateToken(token)) {
-                System.out.println("DEBUG: ¡TOKEN VÁLIDO! Llenando contexto de seguridad...");
-                Claims claims = jwtUtil.getClaims(token);
+            // Una sola verificación de firma: los claims quedan en la caché de JwtUtil, y el id del token
+            // en la petición para los filtros siguientes
+            Claims claims = jwtUtil.getClaimsIfValid(token, jwtUtil.getTokenId(request, token));
+            if (claims != null) {
+                securityMetrics.tokenValidated();
                 String roleName = claims.get("role", String.class);
 
                 // ✅ CORRECCIÓN: usamos el email (subject) como principal,
@@ -44,19 +53,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 // y getUserByEmail() puede encontrar al usuario correctamente.
                 String email = claims.getSubject();
 
-                String authorityCheck = "ROLE_" + roleName.toUpperCase();
-                System.out.println("DEBUG: Authority creado: " + authorityCheck);
-                System.out.println("DEBUG: Principal (email): " + email);
+                String authority = "ROLE_" + roleName.toUpperCase();
+                logger.debug("Token válido. Principal (email): {}, authority: {}", email, authority);
 
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(
                                 email,   // ← email, no userId.toString()
                                 null,
-                                List.of(new SimpleGrantedAuthority("ROLE_" + roleName.toUpperCase()))
+                                List.of(new SimpleGrantedAuthority(authority))
                         );
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             } else {
-                System.out.println("DEBUG: Token encontrado pero INVALIDO (firma, expiración, etc.).");
+                securityMetrics.tokenInvalid();
+                logger.debug("Token encontrado pero inválido (firma, expiración, etc.).");
             }
         }
 
@@ -3,13 +3,20 @@ package com.stockmaster.backend.util;
 import com.stockmaster.backend.entity.User;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 public class JwtUtil {
@@ -17,9 +24,27 @@ public class JwtUtil {
     private static final String SECRET_KEY_STRING = "StockMasterClaveSecretaUnica32Byte";
     private static final SecretKey SECRET_KEY = Keys.hmacShaKeyFor(SECRET_KEY_STRING.getBytes());
 
+    // El parser de jjwt es inmutable y seguro entre hilos: se construye una sola vez
+    private static final JwtParser PARSER = Jwts.parserBuilder().setSigningKey(SECRET_KEY).build();
+
     // 120000 ms = 2 minutos (Tiempo de vida del token)
     private final long validityInMilliseconds = 1800000;
 
+    // ── Caché de claims verificados ──────────────────────────────────────────
+    // Acotada: al llenarse se purgan los expirados (como mucho una vez por segundo);
+    // si sigue llena, el token se verifica igualmente pero no se guarda.
+    static final int MAX_CACHED_TOKENS = 10_000;
+    private static final long PURGE_INTERVAL_MS = 1000;
+
+    // Id del token de la petición, calculado una vez por el primer filtro que lo necesita (ver getTokenId)
+    private static final String TOKEN_ID_ATTRIBUTE = JwtUtil.class.getName() + ".tokenId";
+
+    private final ConcurrentHashMap<String, CachedClaims> claimsCache = new ConcurrentHashMap<>();
+    private final AtomicLong lastPurgeMs = new AtomicLong();
+
+    private record CachedClaims(Claims claims, long expiresAtMs) {
+    }
+
     public String createToken(User user) {
         return Jwts.builder()
                 .setSubject(user.getEmail())
@@ -31,12 +56,48 @@ public class JwtUtil {
                 .compact();
     }
 
+    /**
+     * Devuelve los claims de un token firmado y vigente. La verificación HMAC se hace una sola vez
+     * por token: el resultado queda en caché (clave = SHA-256 del token) hasta su propia expiración.
+     * Si el token es inválido o expiró lanza la misma excepción de jjwt que el parser.
+     */
     public Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return getClaims(token, tokenId(token));
+    }
+
+    // Variante para quien ya tiene el id del token (getTokenId): evita repetir el hash
+    public Claims getClaims(String token, String key) {
+        long now = System.currentTimeMillis();
+
+        CachedClaims cached = claimsCache.get(key);
+        if (cached != null) {
+            if (now < cached.expiresAtMs) {
+                return cached.claims;
+            }
+            claimsCache.remove(key, cached);
+        }
+
+        Claims claims = PARSER.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            cacheClaims(key, claims, now);
+        }
+        return claims;
+    }
+
+    /**
+     * Igual que getClaims pero devuelve null si el token no es válido (firma, formato o expiración),
+     * para que los filtros validen y lean los claims con una sola llamada.
+     */
+    public Claims getClaimsIfValid(String token) {
+        return getClaimsIfValid(token, tokenId(token));
+    }
+
+    public Claims getClaimsIfValid(String token, String tokenId) {
+        try {
+            return getClaims(token, tokenId);
+        } catch (Exception e) {
+            return null;
+        }
     }
 
     public String getUsernameFromJWT(String token) {
@@ -44,8 +105,12 @@ public class JwtUtil {
     }
 
     public long getRemainingTimeInMs(String token) {
+        return getRemainingTimeInMs(token, tokenId(token));
+    }
+
+    public long getRemainingTimeInMs(String token, String tokenId) {
         try {
-            Claims claims = getClaims(token);
+            Claims claims = getClaims(token, tokenId);
             Date expiration = claims.getExpiration();
             long remaining = expiration.getTime() - new Date().getTime();
             return Math.max(0, remaining);
@@ -59,13 +124,48 @@ public class JwtUtil {
     }
 
     public boolean validateToken(String token) {
+        // El token es válido si está firmado correctamente y no ha expirado
+        return getClaimsIfValid(token) != null;
+    }
+
+    private void cacheClaims(String key, Claims claims, long now) {
+        if (claimsCache.size() >= MAX_CACHED_TOKENS) {
+            long last = lastPurgeMs.get();
+            if (now - last >= PURGE_INTERVAL_MS && lastPurgeMs.compareAndSet(last, now)) {
+                claimsCache.values().removeIf(c -> c.expiresAtMs <= now);
+            }
+            if (claimsCache.size() >= MAX_CACHED_TOKENS) {
+                return;
+            }
+        }
+        claimsCache.put(key, new CachedClaims(claims, claims.getExpiration().getTime()));
+    }
+
+    /**
+     * Identificador compacto del token (SHA-256 en Base64). Se usa como clave en las estructuras
+     * en memoria para no retener el JWT completo.
+     */
+    public static String tokenId(String token) {
         try {
-            // El token es válido si está firmado correctamente y no ha expirado
-            getClaims(token); // Si no lanza excepción, es válido.
-            return true;
-        } catch (Exception e) {
-            return false;
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible en la JVM.", e);
+        }
+    }
+
+    /**
+     * Id del token de la petición. Se calcula una sola vez y queda como atributo de la petición,
+     * así los filtros de la cadena no repiten el hash.
+     */
+    public String getTokenId(HttpServletRequest request, String token) {
+        Object cached = request.getAttribute(TOKEN_ID_ATTRIBUTE);
+        if (cached instanceof String tokenId) {
+            return tokenId;
         }
+        String tokenId = tokenId(token);
+        request.setAttribute(TOKEN_ID_ATTRIBUTE, tokenId);
+        return tokenId;
     }
 
     public String getTokenFromRequest(HttpServletRequest request) {
@@ -0,0 +1,47 @@
+package com.stockmaster.backend.util;
+
+import java.security.SecureRandom;
+
+/**
+ * Identificadores ULID: 48 bits de milisegundos + 80 bits aleatorios en 26 caracteres Crockford base32.
+ * Son únicos sin coordinarse con la base de datos y se ordenan por fecha de creación. Dentro del mismo
+ * milisegundo la parte aleatoria se incrementa (modo monótono), así que tampoco se repiten en esta JVM.
+ */
+public final class Ulid {
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static long lastTimestamp;
+    // Parte aleatoria: 16 bits altos + 64 bits bajos
+    private static long randomHigh;
+    private static long randomLow;
+
+    private Ulid() {
+    }
+
+    public static synchronized String next() {
+        long now = System.currentTimeMillis();
+        if (now > lastTimestamp) {
+            lastTimestamp = now;
+            randomHigh = RANDOM.nextInt(1 << 16);
+            randomLow = RANDOM.nextLong();
+        } else if (++randomLow == 0 && (randomHigh = (randomHigh + 1) & 0xFFFF) == 0) {
+            // Desbordamiento de los 80 bits en el mismo milisegundo: se toma el siguiente
+            lastTimestamp++;
+        }
+
+        char[] out = new char[26];
+        encode(lastTimestamp, out, 0, 10);
+        encode((randomHigh << 24) | (randomLow >>> 40), out, 10, 8);
+        encode(randomLow & 0xFF_FFFF_FFFFL, out, 18, 8);
+        return new String(out);
+    }
+
+    private static void encode(long value, char[] out, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            out[i] = ALPHABET[(int) (value & 0x1F)];
+            value >>>= 5;
+        }
+    }
+}
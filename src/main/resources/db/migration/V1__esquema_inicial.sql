@@ -0,0 +1,173 @@
+-- Esquema tal como lo dejaba spring.jpa.hibernate.ddl-auto=update, más los objetos que la aplicación
+-- creaba al arrancar (tablas de sesión de JdbcSessionStore y trigger de solo inserción del libro).
+-- En una base creada por Hibernate (marcada como versión 0 con baseline-on-migrate) solo crea las tablas
+-- que falten: create table if not exists no toca las existentes, así que las columnas y restricciones que
+-- esta serie añade a tablas previas van en migraciones aparte (V2, V4). Los nombres de las claves foráneas
+-- son los que generaba Hibernate.
+
+-- ── Datos de referencia ─────────────────────────────────────────────────────
+
+create table if not exists categoria (
+    id_categoria bigint generated by default as identity,
+    nombre_categoria varchar(255) not null unique,
+    id_categoria_padre bigint,
+    primary key (id_categoria),
+    constraint FKdq6obnxrxf2vu11jip2g1up9m foreign key (id_categoria_padre) references categoria
+);
+
+create table if not exists almacen (
+    id_almacen bigint generated by default as identity,
+    nombre_almacen varchar(255) not null unique,
+    direccion varchar(255),
+    ciudad varchar(255),
+    descripcion varchar(255),
+    is_active boolean not null,
+    fecha_eliminacion timestamp(6),
+    primary key (id_almacen)
+);
+
+create table if not exists proveedor (
+    id_proveedor bigint generated by default as identity,
+    nombre varchar(255) not null,
+    nit varchar(255) unique,
+    email varchar(255),
+    telefono varchar(255),
+    direccion varchar(255),
+    is_active boolean not null,
+    fecha_eliminacion timestamp(6),
+    primary key (id_proveedor)
+);
+
+create table if not exists usuario (
+    id_usuario bigint generated by default as identity,
+    nombre varchar(255) not null,
+    email varchar(255) not null unique,
+    password varchar(255) not null,
+    rol varchar(255) not null,
+    is_active boolean not null,
+    fecha_registro timestamp(6) not null,
+    fecha_eliminacion timestamp(6),
+    primary key (id_usuario)
+);
+
+create table if not exists producto (
+    id_producto bigint generated by default as identity,
+    nombre_producto varchar(255) not null unique,
+    descripcion varchar(255),
+    sku varchar(255) not null unique,
+    precio float(53),
+    is_active boolean not null,
+    id_categoria bigint not null,
+    created_at timestamp(6),
+    fecha_eliminacion timestamp(6),
+    primary key (id_producto),
+    constraint FK9nyueixdsgbycfhf7allg8su foreign key (id_categoria) references categoria
+);
+
+create table if not exists producto_proveedor (
+    id_producto bigint not null,
+    id_proveedor bigint not null,
+    primary key (id_producto, id_proveedor),
+    constraint FKcy71fhpuirnu2c0xult36kbjb foreign key (id_producto) references producto,
+    constraint FKkkr2y6ovyjbfraegumg5nln1p foreign key (id_proveedor) references proveedor
+);
+
+-- ── Inventario y movimientos ────────────────────────────────────────────────
+
+create table if not exists inventario (
+    id_inventario bigint generated by default as identity,
+    id_producto bigint not null,
+    id_almacen bigint not null,
+    stock_actual integer not null,
+    stock_minimo integer not null,
+    bajo_stock boolean generated always as (stock_actual < stock_minimo) stored,
+    primary key (id_inventario),
+    constraint uk_inventario_producto_almacen unique (id_producto, id_almacen),
+    constraint FK16el5pdq2g1pnr09yx5scqmav foreign key (id_producto) references producto,
+    constraint FK5kmq4yv4bbrmxb8og7eojxyq1 foreign key (id_almacen) references almacen
+);
+
+create table if not exists movimiento_inventario (
+    id_movimiento bigint generated by default as identity,
+    fecha_movimiento timestamp(6) not null,
+    tipo_movimiento varchar(255) not null,
+    cantidad integer not null,
+    motivo varchar(500),
+    referencia_transferencia varchar(50),
+    id_producto bigint not null,
+    id_almacen bigint not null,
+    id_usuario bigint not null,
+    primary key (id_movimiento),
+    constraint FKlkde1yc6teblf62ro9slw9qdw foreign key (id_producto) references producto,
+    constraint FKgnmh3wlb4y5b75mxaahqaqe5w foreign key (id_almacen) references almacen,
+    constraint FK93w2jdh5db2ee213yhev288mq foreign key (id_usuario) references usuario
+);
+
+create index if not exists idx_movimiento_producto_almacen_fecha on movimiento_inventario (id_producto, id_almacen, fecha_movimiento);
+create index if not exists idx_movimiento_almacen_fecha on movimiento_inventario (id_almacen, fecha_movimiento);
+create index if not exists idx_movimiento_fecha on movimiento_inventario (fecha_movimiento, id_movimiento);
+
+-- El historial no se corrige: se compensa con un ajuste
+create or replace function movimiento_inventario_solo_insercion() returns trigger as $$
+begin
+    raise exception 'MOVIMIENTO_INVENTARIO es de solo inserción (% rechazado)', TG_OP;
+end;
+$$ language plpgsql;
+
+create or replace trigger trg_movimiento_inventario_solo_insercion
+    before update or delete on movimiento_inventario
+    for each row execute function movimiento_inventario_solo_insercion();
+
+-- ── Cortes de stock y resumen de ventas ─────────────────────────────────────
+
+create table if not exists corte_stock (
+    id_corte bigint generated by default as identity,
+    fecha_corte timestamp(6) not null,
+    creado_en timestamp(6) not null,
+    pares integer not null,
+    primary key (id_corte),
+    constraint uk_corte_stock_fecha unique (fecha_corte)
+);
+
+create table if not exists snapshot_stock (
+    id_snapshot bigint generated by default as identity,
+    id_corte bigint not null,
+    id_producto bigint not null,
+    id_almacen bigint not null,
+    stock integer not null,
+    primary key (id_snapshot),
+    constraint uk_snapshot_stock_corte_almacen_producto unique (id_corte, id_almacen, id_producto),
+    constraint FKh8cnctbbdhjmyr0ga57v26ure foreign key (id_corte) references corte_stock,
+    constraint FKke7mn1e29bkm9qqa4m73mmw24 foreign key (id_producto) references producto,
+    constraint FKtnfd96xqb43qena5b8cedx02h foreign key (id_almacen) references almacen
+);
+
+create table if not exists venta_diaria (
+    id_venta_diaria bigint generated by default as identity,
+    fecha date not null,
+    id_producto bigint not null,
+    id_almacen bigint not null,
+    unidades_vendidas bigint not null,
+    ingresos float(53) not null,
+    primary key (id_venta_diaria),
+    constraint uk_venta_diaria_dia_producto_almacen unique (fecha, id_producto, id_almacen),
+    constraint FKd7vaorphwpw5c27rruabrxkqn foreign key (id_producto) references producto,
+    constraint FK4mdysuh8sovcdtd6j332jqy9y foreign key (id_almacen) references almacen
+);
+
+-- ── Sesiones (session.store=jdbc) ───────────────────────────────────────────
+
+create table if not exists sesion_revocada (
+    id_token varchar(64) primary key,
+    expira_en bigint not null
+);
+
+create index if not exists idx_sesion_revocada_expira on sesion_revocada (expira_en);
+
+create table if not exists sesion_actividad (
+    id_token varchar(64) primary key,
+    ultimo_acceso bigint not null,
+    expira_en bigint not null
+);
+
+create index if not exists idx_sesion_actividad_acceso on sesion_actividad (ultimo_acceso);
@@ -0,0 +1,36 @@
+-- Índices para los predicados más frecuentes sobre MOVIMIENTO_INVENTARIO e INVENTARIO.
+--
+-- Ya cubiertos por V1:
+--   countByMovementDateBetween, findMovementReport y findByOrderByMovementDateDesc  -> idx_movimiento_fecha
+--   búsqueda de la fila de INVENTARIO de un par producto/almacén                    -> uk_inventario_producto_almacen
+
+-- Historial filtrado por tipo y producto (InventoryMovementRepositoryImpl.findHistoryPage, ordenado por fecha)
+-- y reconstrucción de ventas (tipo SALIDA) de un producto
+create index if not exists idx_movimiento_tipo_producto_fecha
+    on movimiento_inventario (tipo_movimiento, id_producto, fecha_movimiento);
+
+-- Una base creada por ddl-auto=update puede no tener la restricción única de INVENTARIO si ya había filas
+-- duplicadas (Hibernate solo avisaba). Se fusionan sumando el stock en la fila más antigua y se crea.
+do $$
+begin
+    if not exists (select 1 from pg_constraint where conname = 'uk_inventario_producto_almacen') then
+        update inventario i
+           set stock_actual = d.stock_actual, stock_minimo = d.stock_minimo
+          from (select min(id_inventario) as id_inventario, sum(stock_actual) as stock_actual,
+                       max(stock_minimo) as stock_minimo
+                  from inventario
+                 group by id_producto, id_almacen
+                having count(*) > 1) d
+         where i.id_inventario = d.id_inventario;
+
+        delete from inventario i
+         using inventario keep
+         where keep.id_producto = i.id_producto
+           and keep.id_almacen = i.id_almacen
+           and keep.id_inventario < i.id_inventario;
+
+        alter table inventario
+            add constraint uk_inventario_producto_almacen unique (id_producto, id_almacen);
+    end if;
+end;
+$$;
@@ -0,0 +1,10 @@
+-- Cortes de stock incrementales (ver StockLedgerService).
+--
+-- Un corte completo guarda todos los pares producto/almacén con stock distinto de cero; uno incremental solo
+-- los pares cuyo stock cambió desde el corte anterior (con stock 0 si se agotaron). Los cortes existentes
+-- son completos.
+alter table corte_stock add column if not exists completo boolean not null default true;
+
+-- Último valor de un par hasta un corte: se busca por par y se recorre id_corte hacia atrás
+create index if not exists idx_snapshot_stock_almacen_producto_corte
+    on snapshot_stock (id_almacen, id_producto, id_corte);
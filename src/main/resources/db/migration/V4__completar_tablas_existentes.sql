@@ -0,0 +1,15 @@
+-- Columnas que el esquema actual añade a tablas que ya existían en una base creada por ddl-auto=update.
+-- V1 no las crea en ese caso (create table if not exists omite la tabla entera); en una base nueva ya
+-- están y estas sentencias no hacen nada.
+--
+--   inventario.bajo_stock              -> aquí
+--   uk_inventario_producto_almacen     -> V2 (fusiona antes las filas duplicadas)
+--   el resto de tablas del esquema actual no existía antes de V1
+
+-- HU14: stock bajo como columna generada (ver Inventory.lowStock)
+alter table inventario
+    add column if not exists bajo_stock boolean generated always as (stock_actual < stock_minimo) stored;
+
+-- Índice parcial: solo las filas con stock bajo (pocas) y no el resto, que es casi toda la tabla. Cubre el
+-- predicado de InventoryRepository.findLowStockAlerts y findLowStockReport (bajo_stock = true)
+create index if not exists idx_inventario_bajo_stock on inventario (id_almacen, id_producto) where bajo_stock;
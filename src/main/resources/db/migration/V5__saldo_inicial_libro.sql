@@ -0,0 +1,45 @@
+-- Saldo de apertura del libro de movimientos (ver StockLedgerService).
+--
+-- Antes de esta serie el alta de un producto escribía la cantidad inicial en INVENTARIO sin movimiento, así
+-- que en una base existente stock_actual no coincide con la suma de los movimientos del par: verify() lo
+-- informaba como desfase en cada pasada y /api/inventory/stock-at devolvía de menos. Por cada par con
+-- diferencia se registra una sola vez un ajuste "Saldo inicial" por esa diferencia, fechado en el alta del
+-- producto o antes (en el primer movimiento del par si este es anterior), para que el libro reproduzca
+-- INVENTARIO también en fechas pasadas. Los productos nuevos ya registran su stock inicial como ENTRADA.
+
+create temporary table saldo_inicial on commit drop as
+select i.id_producto,
+       i.id_almacen,
+       i.stock_actual - coalesce(m.stock, 0) as diferencia,
+       coalesce(least(p.created_at, m.primero), now()::timestamp(6)) as fecha
+  from inventario i
+  join producto p on p.id_producto = i.id_producto
+  left join (select id_producto, id_almacen, min(fecha_movimiento) as primero,
+                    sum(case when tipo_movimiento in ('ENTRADA', 'AJUSTE_POSITIVO') then cantidad else -cantidad end) as stock
+               from movimiento_inventario
+              group by id_producto, id_almacen) m
+         on m.id_producto = i.id_producto and m.id_almacen = i.id_almacen
+ where i.stock_actual <> coalesce(m.stock, 0);
+
+-- El movimiento necesita un usuario: el primer administrador, o el primer usuario si no hay ninguno
+insert into movimiento_inventario (fecha_movimiento, tipo_movimiento, cantidad, motivo, id_producto, id_almacen, id_usuario)
+select s.fecha,
+       case when s.diferencia > 0 then 'AJUSTE_POSITIVO' else 'AJUSTE_NEGATIVO' end,
+       abs(s.diferencia),
+       'Saldo inicial',
+       s.id_producto,
+       s.id_almacen,
+       u.id_usuario
+  from saldo_inicial s
+ cross join (select id_usuario from usuario
+              order by (rol = 'ADMINISTRADOR') desc, id_usuario
+              limit 1) u;
+
+-- Los cortes posteriores al saldo más antiguo se calcularon sin él: se descartan y el próximo corte se
+-- reconstruye desde el libro
+delete from snapshot_stock
+ where id_corte in (select id_corte from corte_stock
+                     where fecha_corte > (select min(fecha) from saldo_inicial));
+
+delete from corte_stock
+ where fecha_corte > (select min(fecha) from saldo_inicial);
@@ -0,0 +1,134 @@
+package com.stockmaster.backend;
+
+import com.stockmaster.backend.dto.MovementDto;
+import com.stockmaster.backend.service.InsufficientStockException;
+import com.stockmaster.backend.service.InventoryMovementService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de estrés de la ruta de stock: muchos hilos registran salidas y entradas a la vez sobre un
+ * mismo producto y almacén. Ninguna actualización se pierde (el stock final cuadra con las operaciones
+ * aceptadas y con el libro de movimientos) y el stock nunca baja de cero.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class InventoryStockConcurrencyTests {
+
+	private static final int INITIAL_STOCK = 100;
+	private static final int EXIT_THREADS = 16;
+	private static final int ENTRY_THREADS = 8;
+	private static final int OPERATIONS_PER_THREAD = 25;
+
+	@Autowired
+	private InventoryMovementService movementService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void concurrentExitsAndEntriesDoNotLoseUpdatesOrOversell() throws Exception {
+		String suffix = Long.toString(System.nanoTime());
+		Long categoryId = jdbcTemplate.queryForObject(
+				"INSERT INTO categoria (nombre_categoria) VALUES (?) RETURNING id_categoria", Long.class, "Estrés " + suffix);
+		Long productId = jdbcTemplate.queryForObject(
+				"INSERT INTO producto (nombre_producto, sku, precio, is_active, id_categoria, created_at) " +
+				"VALUES (?, ?, 1, true, ?, now()) RETURNING id_producto", Long.class,
+				"Estrés " + suffix, "EST-" + suffix, categoryId);
+		Long warehouseId = jdbcTemplate.queryForObject(
+				"INSERT INTO almacen (nombre_almacen, is_active) VALUES (?, true) RETURNING id_almacen", Long.class,
+				"Estrés " + suffix);
+		Long userId = jdbcTemplate.queryForObject(
+				"INSERT INTO usuario (nombre, email, password, rol, is_active, fecha_registro) " +
+				"VALUES ('Estrés', ?, 'x', 'OPERADOR', true, now()) RETURNING id_usuario", Long.class,
+				"estres" + suffix + "@stockmaster.test");
+
+		movementService.registerEntry(movement(productId, warehouseId, userId, INITIAL_STOCK));
+
+		AtomicInteger acceptedExits = new AtomicInteger();
+		AtomicInteger rejectedExits = new AtomicInteger();
+		AtomicInteger minObserved = new AtomicInteger(Integer.MAX_VALUE);
+		AtomicBoolean running = new AtomicBoolean(true);
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(EXIT_THREADS + ENTRY_THREADS + 1);
+		List<Future<?>> futures = new ArrayList<>();
+		try {
+			// Observador: el stock leído en cualquier momento nunca es negativo
+			Future<?> monitor = pool.submit(() -> {
+				while (running.get()) {
+					int stock = movementService.getCurrentStock(productId, warehouseId);
+					minObserved.accumulateAndGet(stock, Math::min);
+				}
+			});
+			for (int t = 0; t < EXIT_THREADS; t++) {
+				futures.add(pool.submit(() -> {
+					start.await();
+					for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+						try {
+							movementService.registerExit(movement(productId, warehouseId, userId, 1));
+							acceptedExits.incrementAndGet();
+						} catch (InsufficientStockException e) {
+							rejectedExits.incrementAndGet();
+						}
+					}
+					return null;
+				}));
+			}
+			for (int t = 0; t < ENTRY_THREADS; t++) {
+				futures.add(pool.submit(() -> {
+					start.await();
+					for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+						movementService.registerEntry(movement(productId, warehouseId, userId, 1));
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(2, TimeUnit.MINUTES);
+			}
+			running.set(false);
+			monitor.get(1, TimeUnit.MINUTES);
+		} finally {
+			running.set(false);
+			pool.shutdownNow();
+		}
+
+		int entries = ENTRY_THREADS * OPERATIONS_PER_THREAD;
+		int finalStock = movementService.getCurrentStock(productId, warehouseId);
+		assertEquals(EXIT_THREADS * OPERATIONS_PER_THREAD, acceptedExits.get() + rejectedExits.get());
+		assertEquals(INITIAL_STOCK + entries - acceptedExits.get(), finalStock, "Actualizaciones perdidas");
+		assertTrue(finalStock >= 0, "Stock final negativo: " + finalStock);
+		assertTrue(minObserved.get() >= 0, "El stock llegó a " + minObserved.get());
+
+		Integer ledger = jdbcTemplate.queryForObject(
+				"SELECT SUM(CASE WHEN tipo_movimiento = 'ENTRADA' THEN cantidad ELSE -cantidad END) " +
+				"FROM movimiento_inventario WHERE id_producto = ? AND id_almacen = ?", Integer.class, productId, warehouseId);
+		assertEquals(finalStock, ledger, "El stock no cuadra con los movimientos registrados");
+	}
+
+	private static MovementDto movement(Long productId, Long warehouseId, Long userId, int quantity) {
+		MovementDto dto = new MovementDto();
+		dto.setProductId(productId);
+		dto.setWarehouseId(warehouseId);
+		dto.setUserId(userId);
+		dto.setQuantity(quantity);
+		dto.setMotive("Prueba de concurrencia");
+		return dto;
+	}
+}
@@ -0,0 +1,94 @@
+package com.stockmaster.backend;
+
+import com.stockmaster.backend.dto.ProductListDto;
+import com.stockmaster.backend.dto.ProductPageDto;
+import com.stockmaster.backend.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Regresión de N+1 en el listado de productos: el número de sentencias (estadísticas de Hibernate,
+ * hibernate.generate_statistics) no depende de cuántos productos ni proveedores haya.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductListingQueryCountTests {
+
+	private static final int PRODUCTS_PER_ROUND = 20;
+	private static final int SUPPLIERS_PER_PRODUCT = 2;
+
+	@Autowired
+	private ProductService productService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void listingRunsConstantNumberOfStatements() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		String suffix = Long.toString(System.nanoTime());
+		Long categoryId = jdbcTemplate.queryForObject(
+				"INSERT INTO categoria (nombre_categoria) VALUES (?) RETURNING id_categoria", Long.class, "Conteo " + suffix);
+
+		createProducts(categoryId, suffix + "-a");
+		statistics.clear();
+		List<ProductListDto> first = productService.getAllProducts();
+		long firstStatements = statistics.getPrepareStatementCount();
+
+		createProducts(categoryId, suffix + "-b");
+		statistics.clear();
+		List<ProductListDto> second = productService.getAllProducts();
+		long secondStatements = statistics.getPrepareStatementCount();
+
+		assertEquals(first.size() + PRODUCTS_PER_ROUND, second.size());
+		assertEquals(firstStatements, secondStatements,
+				"Las sentencias crecen con el número de productos: " + firstStatements + " -> " + secondStatements);
+		assertTrue(secondStatements <= 2, "Se esperaban 2 sentencias (productos y proveedores), hubo " + secondStatements);
+
+		Map<Long, ProductListDto> byId = second.stream()
+				.collect(Collectors.toMap(ProductListDto::getId, Function.identity()));
+		List<Long> fixtureIds = jdbcTemplate.queryForList(
+				"SELECT id_producto FROM producto WHERE id_categoria = ?", Long.class, categoryId);
+		assertEquals(2 * PRODUCTS_PER_ROUND, fixtureIds.size());
+		fixtureIds.forEach(id -> assertEquals(SUPPLIERS_PER_PRODUCT, byId.get(id).getSuppliers().size()));
+
+		statistics.clear();
+		ProductPageDto page = productService.getProductsPage(PageRequest.of(0, 50, Sort.by("name")));
+		assertTrue(page.getContent().size() > 0);
+		assertTrue(statistics.getPrepareStatementCount() <= 3,
+				"Se esperaban 3 sentencias por página (datos, proveedores y COUNT), hubo " + statistics.getPrepareStatementCount());
+	}
+
+	private void createProducts(Long categoryId, String suffix) {
+		for (int i = 0; i < PRODUCTS_PER_ROUND; i++) {
+			Long productId = jdbcTemplate.queryForObject(
+					"INSERT INTO producto (nombre_producto, sku, precio, is_active, id_categoria, created_at) " +
+					"VALUES (?, ?, 1, true, ?, now()) RETURNING id_producto", Long.class,
+					"Conteo " + suffix + "-" + i, "CNT-" + suffix + "-" + i, categoryId);
+			for (int s = 0; s < SUPPLIERS_PER_PRODUCT; s++) {
+				Long supplierId = jdbcTemplate.queryForObject(
+						"INSERT INTO proveedor (nombre, is_active) VALUES (?, true) RETURNING id_proveedor", Long.class,
+						"Conteo " + suffix + "-" + i + "-" + s);
+				jdbcTemplate.update("INSERT INTO producto_proveedor (id_producto, id_proveedor) VALUES (?, ?)",
+						productId, supplierId);
+			}
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package com.stockmaster.backend;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba con EXPLAIN que el planificador usa los índices de las migraciones para los predicados
+ * frecuentes. La base de pruebas se llena antes con un volumen representativo (dos años de movimientos
+ * repartidos entre productos, almacenes y tipos; pocas filas con stock bajo) y se analizan las tablas,
+ * así el plan sale de estadísticas realistas y no de forzar al planificador.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SchemaIndexUsageTests {
+
+	private static final int WAREHOUSES = 20;
+	private static final int PRODUCTS = 500;
+	private static final int MOVEMENTS = 60_000;
+	private static final int HISTORY_DAYS = 730;
+
+	private static final Timestamp FROM = Timestamp.valueOf(LocalDateTime.now().minusDays(7));
+	private static final Timestamp TO = Timestamp.valueOf(LocalDateTime.now());
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Long productId;
+	private Long warehouseId;
+
+	@BeforeAll
+	void seedRepresentativeData() {
+		String suffix = Long.toString(System.nanoTime());
+		Long categoryId = jdbcTemplate.queryForObject(
+				"INSERT INTO categoria (nombre_categoria) VALUES (?) RETURNING id_categoria", Long.class, "Índices " + suffix);
+		Long userId = jdbcTemplate.queryForObject(
+				"INSERT INTO usuario (nombre, email, password, rol, is_active, fecha_registro) " +
+				"VALUES ('Índices', ?, 'x', 'OPERADOR', true, now()) RETURNING id_usuario", Long.class,
+				"indices" + suffix + "@stockmaster.test");
+		jdbcTemplate.update("INSERT INTO almacen (nombre_almacen, is_active) " +
+				"SELECT 'Índices ' || ? || '-' || g, true FROM generate_series(1, ?) g", suffix, WAREHOUSES);
+		jdbcTemplate.update("INSERT INTO producto (nombre_producto, sku, precio, is_active, id_categoria, created_at) " +
+				"SELECT 'Índices ' || ? || '-' || g, 'IDX-' || ? || '-' || g, 1, true, ?, now() " +
+				"FROM generate_series(1, ?) g", suffix, suffix, categoryId, PRODUCTS);
+		// Productos y almacenes de la carga numerados desde 1
+		String seeded = "WITH p AS (SELECT row_number() OVER (ORDER BY id_producto) AS n, id_producto FROM producto " +
+				"           WHERE id_categoria = " + categoryId + "), " +
+				"     a AS (SELECT row_number() OVER (ORDER BY id_almacen) AS n, id_almacen FROM almacen " +
+				"           WHERE nombre_almacen LIKE 'Índices " + suffix + "-%') ";
+
+		// Una fila de inventario por par; una de cada cincuenta por debajo del mínimo
+		jdbcTemplate.update("INSERT INTO inventario (id_producto, id_almacen, stock_actual, stock_minimo) " + seeded +
+				"SELECT p.id_producto, a.id_almacen, 100, CASE WHEN (p.n + a.n) % 50 = 0 THEN 200 ELSE 10 END " +
+				"FROM p CROSS JOIN a");
+		jdbcTemplate.update("INSERT INTO movimiento_inventario (fecha_movimiento, tipo_movimiento, cantidad, id_producto, id_almacen, id_usuario) " +
+				seeded +
+				"SELECT now() - (g % ?) * interval '1 day' - (g % 1440) * interval '1 minute', " +
+				"       (ARRAY['ENTRADA', 'ENTRADA', 'SALIDA', 'SALIDA', 'SALIDA', 'AJUSTE_POSITIVO', 'AJUSTE_NEGATIVO'])[g % 7 + 1], " +
+				"       1 + g % 10, p.id_producto, a.id_almacen, ? " +
+				"FROM generate_series(1::bigint, ?) g " +
+				"JOIN p ON p.n = 1 + (g * 7919) % ? " +
+				"JOIN a ON a.n = 1 + (g * 104729) % ?",
+				HISTORY_DAYS, userId, MOVEMENTS, PRODUCTS, WAREHOUSES);
+		jdbcTemplate.execute("ANALYZE inventario");
+		jdbcTemplate.execute("ANALYZE movimiento_inventario");
+
+		productId = jdbcTemplate.queryForObject(seeded + "SELECT id_producto FROM p WHERE n = 1", Long.class);
+		warehouseId = jdbcTemplate.queryForObject(seeded + "SELECT id_almacen FROM a WHERE n = 1", Long.class);
+	}
+
+	// InventoryMovementRepository.countByMovementDateBetween
+	@Test
+	void countByMovementDateUsesDateIndex() {
+		assertUsesIndex("idx_movimiento_fecha",
+				"SELECT count(*) FROM movimiento_inventario WHERE fecha_movimiento BETWEEN ? AND ?", FROM, TO);
+	}
+
+	// InventoryMovementRepository.findMovementReport / streamMovementReport
+	@Test
+	void movementReportUsesDateIndex() {
+		assertUsesIndex("idx_movimiento_fecha",
+				"SELECT * FROM movimiento_inventario WHERE fecha_movimiento BETWEEN ? AND ? " +
+				"ORDER BY fecha_movimiento, id_movimiento", FROM, TO);
+	}
+
+	// InventoryMovementRepository.findByOrderByMovementDateDesc
+	@Test
+	void recentMovementsUseDateIndex() {
+		assertUsesIndex("idx_movimiento_fecha",
+				"SELECT * FROM movimiento_inventario ORDER BY fecha_movimiento DESC LIMIT 10");
+	}
+
+	// InventoryMovementRepositoryImpl.findHistoryPage con filtro de tipo y producto
+	@Test
+	void historyByTypeAndProductUsesTypeProductIndex() {
+		assertUsesIndex("idx_movimiento_tipo_producto_fecha",
+				"SELECT * FROM movimiento_inventario WHERE tipo_movimiento = ? AND id_producto = ? " +
+				"ORDER BY fecha_movimiento DESC, id_movimiento DESC LIMIT 20", "SALIDA", productId);
+	}
+
+	// InventoryRepository: fila de un par producto/almacén
+	@Test
+	void inventoryLookupUsesUniqueIndex() {
+		assertUsesIndex("uk_inventario_producto_almacen",
+				"SELECT * FROM inventario WHERE id_producto = ? AND id_almacen = ?", productId, warehouseId);
+	}
+
+	// InventoryRepository.findLowStockAlerts / findLowStockReport: índice parcial (where bajo_stock)
+	@Test
+	void lowStockUsesPartialIndex() {
+		assertUsesIndex("idx_inventario_bajo_stock",
+				"SELECT * FROM inventario WHERE bajo_stock = true");
+	}
+
+	private void assertUsesIndex(String index, String sql, Object... args) {
+		String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args));
+		assertTrue(plan.contains(index), () -> "Se esperaba " + index + " en el plan:\n" + plan);
+	}
+}
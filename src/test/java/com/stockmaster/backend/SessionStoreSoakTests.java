@@ -0,0 +1,94 @@
+package com.stockmaster.backend;
+
+import com.stockmaster.backend.security.InMemorySessionStore;
+import com.stockmaster.backend.security.SessionStore;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de permanencia de InMemorySessionStore con reloj simulado: un día de altas y bajas continuas
+ * (cierres de sesión, sesiones abandonadas que cierra el barrido y tokens que expiran). Las sesiones y la
+ * lista negra se estabilizan en lo que permiten la tasa de altas y la vida del token, y quedan vacías cuando
+ * las altas paran y los tokens expiran. Se puede lanzar sola con -Dgroups=soak.
+ */
+@Tag("soak")
+class SessionStoreSoakTests {
+
+	private static final long SECOND = 1000;
+	private static final long TOKEN_VALIDITY_MS = 30 * 60 * SECOND;
+	private static final long INACTIVITY_MS = 10 * 60 * SECOND;
+	private static final long SWEEP_INTERVAL_MS = 30 * SECOND;
+	private static final long SIMULATED_MS = 24 * 60 * 60 * SECOND;
+	private static final int LOGINS_PER_SECOND = 5;
+
+	private record ActiveSession(String tokenId, long tokenExpiresAtMs, long endsAtMs, boolean logsOut) {
+	}
+
+	@Test
+	void sessionsAndRevocationsStayBoundedUnderChurn() {
+		SessionStore store = new InMemorySessionStore();
+		Random random = new Random(42);
+		Deque<ActiveSession> active = new ArrayDeque<>();
+		long next = 0;
+
+		// Cota: todo lo que entra en una vida de token (más un barrido) puede seguir ahí; nada más antiguo
+		long bound = LOGINS_PER_SECOND * ((TOKEN_VALIDITY_MS + SWEEP_INTERVAL_MS) / SECOND);
+		int maxSessions = 0;
+		int maxRevoked = 0;
+		int maxRevokedFirstHalf = 0;
+
+		for (long now = 0; now < SIMULATED_MS; now += SECOND) {
+			for (int i = 0; i < LOGINS_PER_SECOND; i++) {
+				String tokenId = Long.toString(next++);
+				long tokenExpiresAtMs = now + TOKEN_VALIDITY_MS;
+				store.startSession(tokenId, tokenExpiresAtMs, now);
+				// Usa la sesión entre 1 y 20 minutos; un tercio se abandona sin cerrar sesión
+				long endsAtMs = now + (1 + random.nextInt(20)) * 60 * SECOND;
+				active.addLast(new ActiveSession(tokenId, tokenExpiresAtMs, endsAtMs, random.nextInt(3) != 0));
+			}
+
+			int pending = active.size();
+			for (int i = 0; i < pending; i++) {
+				ActiveSession session = active.pollFirst();
+				if (now < session.endsAtMs()) {
+					store.touch(session.tokenId(), now);
+					active.addLast(session);
+				} else if (session.logsOut()) {
+					store.endSession(session.tokenId());
+					store.revoke(session.tokenId(), session.tokenExpiresAtMs());
+				}
+			}
+
+			if (now % SWEEP_INTERVAL_MS == 0) {
+				store.expireIdleSessions(now - INACTIVITY_MS, now);
+				store.evictExpiredRevocations(now);
+			}
+
+			maxSessions = Math.max(maxSessions, store.sessionCount());
+			maxRevoked = Math.max(maxRevoked, store.revokedCount());
+			if (now < SIMULATED_MS / 2) {
+				maxRevokedFirstHalf = maxRevoked;
+			}
+		}
+
+		assertTrue(maxSessions <= bound, "Sesiones: " + maxSessions + " > " + bound);
+		assertTrue(maxRevoked <= bound, "Lista negra: " + maxRevoked + " > " + bound);
+		// Estable: la segunda mitad del día no supera apreciablemente el máximo de la primera
+		assertTrue(maxRevoked <= maxRevokedFirstHalf * 1.1,
+				"La lista negra sigue creciendo: " + maxRevokedFirstHalf + " -> " + maxRevoked);
+
+		// Sin altas nuevas, pasada la vida del último token y un barrido, no queda nada
+		long end = SIMULATED_MS + TOKEN_VALIDITY_MS + SWEEP_INTERVAL_MS;
+		store.expireIdleSessions(end - INACTIVITY_MS, end);
+		store.evictExpiredRevocations(end);
+		assertEquals(0, store.sessionCount());
+		assertEquals(0, store.revokedCount());
+	}
+}
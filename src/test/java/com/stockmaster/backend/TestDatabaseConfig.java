@@ -0,0 +1,55 @@
+package com.stockmaster.backend;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Base de datos del perfil "test" (application-test.properties). Antes de migrar se crea la base si no
+ * existe, conectando a la base de mantenimiento "postgres" del mismo servidor, y se vacía con flyway clean:
+ * cada ejecución de las pruebas parte de un esquema recién migrado y sin datos de ejecuciones anteriores.
+ */
+@Configuration
+@Profile("test")
+class TestDatabaseConfig {
+
+	@Bean
+	FlywayMigrationStrategy flywayMigrationStrategy(DataSourceProperties properties) {
+		return flyway -> {
+			createDatabaseIfMissing(properties);
+			flyway.clean();
+			flyway.migrate();
+		};
+	}
+
+	private static void createDatabaseIfMissing(DataSourceProperties properties) {
+		String url = properties.getUrl();
+		int slash = url.lastIndexOf('/');
+		int query = url.indexOf('?', slash);
+		String database = query < 0 ? url.substring(slash + 1) : url.substring(slash + 1, query);
+		String maintenanceUrl = url.substring(0, slash + 1) + "postgres";
+		try (Connection connection = DriverManager.getConnection(maintenanceUrl, properties.getUsername(), properties.getPassword());
+			 PreparedStatement exists = connection.prepareStatement("SELECT 1 FROM pg_database WHERE datname = ?")) {
+			exists.setString(1, database);
+			try (ResultSet rs = exists.executeQuery()) {
+				if (rs.next()) {
+					return;
+				}
+			}
+			try (Statement create = connection.createStatement()) {
+				create.execute("CREATE DATABASE \"" + database.replace("\"", "\"\"") + "\"");
+			}
+		} catch (SQLException e) {
+			throw new IllegalStateException("No se pudo preparar la base de pruebas " + database, e);
+		}
+	}
+}